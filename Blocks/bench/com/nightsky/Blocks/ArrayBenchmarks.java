@@ -0,0 +1,299 @@
+package com.nightsky.Blocks;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * ArrayBenchmarks - Array.set and iteration at several fill ratios (size / length), against a
+ * plain Object[] and java.util.ArrayList, and the unboxed IntArray and OffHeapArray, and MappedArray
+ * in a temporary file (in the page cache, so these are not disk numbers).
+ *
+ * The expanding sets are scored in ns per set. The 'fill' benchmarks are scored in us per pass over
+ * the array, since the number of values they touch depends on 'fill'.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = "-Xmx2g")
+public class ArrayBenchmarks
+{
+	static final int LENGTH = 1000000;
+
+	@State(Scope.Thread)
+	public static class Values
+	{
+		Integer[] values = new Integer[LENGTH];
+
+		@Setup
+		public void setup ()
+		{
+			for (int i = 0; i < LENGTH; i++)
+			{
+				values[i] = i;
+			}
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(LENGTH)
+	public int expandingSetArray (Values data)
+	{
+		Array<Integer> array = new Array<Integer> ();
+		for (int i = 0; i < LENGTH; i++) array.set(i, data.values[i]);
+		return array.size();
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(LENGTH)
+	public int expandingSetIntArray ()
+	{
+		IntArray array = new IntArray ();
+		for (int i = 0; i < LENGTH; i++) array.set(i, i);
+		return array.size();
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(LENGTH)
+	public int addArrayList (Values data)
+	{
+		ArrayList<Integer> list = new ArrayList<Integer> ();
+		for (int i = 0; i < LENGTH; i++) list.add(data.values[i]);
+		return list.size();
+	}
+
+	////////////////////////////////////////////////
+	//
+	//	at a fill ratio
+	//
+	/**
+	 * Filled - a random selection of fill * LENGTH distinct indices, and the arrays that hold a value
+	 * 		at those indices.
+	 */
+	@State(Scope.Thread)
+	public static class Filled
+	{
+		@Param({"0.1", "0.5", "1.0"})
+		public double fill;
+
+		int count;
+		int[] indices;
+		Integer[] values = new Integer[LENGTH];
+		Array<Integer> filled = new Array<Integer> (LENGTH);
+		Object[] plain = new Object[LENGTH];
+		IntArray filled_ints = new IntArray (LENGTH);
+		OffHeapArray filled_off_heap = new OffHeapArray ();
+		MappedArray<Integer> filled_mapped;
+
+		@Setup
+		public void setup ()
+		{
+			Random random = new Random(4);
+			int[] shuffled = new int[LENGTH];
+			for (int i = 0; i < LENGTH; i++)
+			{
+				shuffled[i] = i;
+				values[i] = i;
+			}
+			for (int i = LENGTH - 1; i > 0; i--)
+			{
+				int j = random.nextInt(i + 1);
+				int t = shuffled[i];
+				shuffled[i] = shuffled[j];
+				shuffled[j] = t;
+			}
+			count = (int) (fill * LENGTH);
+			indices = new int[count];
+			System.arraycopy(shuffled, 0, indices, 0, count);
+
+			filled_mapped = mapped ();
+			for (int i = 0; i < count; i++)
+			{
+				filled.set(indices[i], values[indices[i]]);
+				plain[indices[i]] = values[indices[i]];
+				filled_ints.set(indices[i], indices[i]);
+				filled_off_heap.setLong(indices[i], indices[i]);
+				filled_mapped.set(indices[i], values[indices[i]]);
+			}
+		}
+
+		@TearDown
+		public void tearDown () throws IOException
+		{
+			filled_mapped.close();
+		}
+	}
+
+	@State(Scope.Thread)
+	public static class Cleared
+	{
+		Array<Integer> array = new Array<Integer> (LENGTH);
+		ArrayCursor<Integer> cursor = new ArrayCursor<Integer> ();
+
+		@Setup(Level.Invocation)
+		public void clear ()
+		{
+			array.clear();
+		}
+	}
+
+	@Benchmark
+	@OutputTimeUnit(TimeUnit.MICROSECONDS)
+	public int setRandomArray (Filled data, Cleared cleared)
+	{
+		Array<Integer> array = cleared.array;
+		for (int i = 0; i < data.count; i++) array.set(data.indices[i], data.values[data.indices[i]]);
+		return array.size();
+	}
+
+	@Benchmark
+	@OutputTimeUnit(TimeUnit.MICROSECONDS)
+	public long iterator (Filled data)
+	{
+		long sum = 0;
+		Iterator<Integer> it = data.filled.iterator();
+		while (it.hasNext()) sum += it.next();
+		return sum;
+	}
+
+	@Benchmark
+	@OutputTimeUnit(TimeUnit.MICROSECONDS)
+	public long beginNext (Filled data)
+	{
+		Array<Integer> filled = data.filled;
+		long sum = 0;
+		filled.begin();
+		while (filled.hasNext()) sum += filled.next();
+		return sum;
+	}
+
+	@Benchmark
+	@OutputTimeUnit(TimeUnit.MICROSECONDS)
+	public long beginNextIntArray (Filled data)
+	{
+		IntArray filled = data.filled_ints;
+		long sum = 0;
+		filled.begin();
+		while (filled.hasNext()) sum += filled.nextInt();
+		return sum;
+	}
+
+	@Benchmark
+	@OutputTimeUnit(TimeUnit.MICROSECONDS)
+	public long beginNextOffHeapArray (Filled data)
+	{
+		OffHeapArray filled = data.filled_off_heap;
+		long sum = 0;
+		filled.begin();
+		while (filled.hasNext()) sum += filled.nextLong();
+		return sum;
+	}
+
+	@Benchmark
+	@OutputTimeUnit(TimeUnit.MICROSECONDS)
+	public long beginNextMappedArray (Filled data)
+	{
+		MappedArray<Integer> filled = data.filled_mapped;
+		long sum = 0;
+		filled.begin();
+		while (filled.hasNext()) sum += filled.next();
+		return sum;
+	}
+
+	@Benchmark
+	@OutputTimeUnit(TimeUnit.MICROSECONDS)
+	public long arrayCursor (Filled data, Cleared cleared)
+	{
+		ArrayCursor<Integer> cursor = cleared.cursor;
+		long sum = 0;
+		cursor.reset(data.filled);
+		while (cursor.hasNext()) sum += cursor.next();
+		return sum;
+	}
+
+	@Benchmark
+	@OutputTimeUnit(TimeUnit.MICROSECONDS)
+	public void forEach (Filled data, Blackhole bh)
+	{
+		data.filled.forEach(bh::consume);
+	}
+
+	@Benchmark
+	@OutputTimeUnit(TimeUnit.MICROSECONDS)
+	public long nextSetIndex (Filled data)
+	{
+		Array<Integer> filled = data.filled;
+		long sum = 0;
+		for (int i = filled.nextSetIndex(0); i >= 0; i = filled.nextSetIndex(i + 1)) sum += filled.get(i);
+		return sum;
+	}
+
+	@Benchmark
+	@OutputTimeUnit(TimeUnit.MICROSECONDS)
+	public long streamSum (Filled data)
+	{
+		return data.filled.stream().mapToLong(Integer::longValue).sum();
+	}
+
+	@Benchmark
+	@OutputTimeUnit(TimeUnit.MICROSECONDS)
+	public long parallelStreamSum (Filled data)
+	{
+		return data.filled.parallelStream().mapToLong(Integer::longValue).sum();
+	}
+
+	@Benchmark
+	@OutputTimeUnit(TimeUnit.MICROSECONDS)
+	public long scanObjectArray (Filled data)
+	{
+		Object[] plain = data.plain;
+		long sum = 0;
+		for (int i = 0; i < LENGTH; i++)
+		{
+			Object v = plain[i];
+			if (v != null) sum += (Integer) v;
+		}
+		return sum;
+	}
+
+	/**
+	 * static MappedArray<Integer> mapped () - MappedArray in a new temporary file, deleted when the
+	 * 		JVM exits.
+	 */
+	static MappedArray<Integer> mapped ()
+	{
+		try
+		{
+			Path file = Files.createTempFile("blocks", ".array");
+			file.toFile().deleteOnExit();
+			Files.delete(file);
+			return new MappedArray<Integer> (file, SnapshotCodecs.INTEGER);
+		}
+		catch (IOException e)
+		{
+			throw new UncheckedIOException (e);
+		}
+	}
+}
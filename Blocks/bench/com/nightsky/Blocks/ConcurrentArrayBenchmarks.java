@@ -0,0 +1,148 @@
+package com.nightsky.Blocks;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.ThreadParams;
+
+/**
+ * ConcurrentArrayBenchmarks - ConcurrentArray against an Array behind one global lock, as a shared
+ * lookup table of LENGTH handles:
+ *
+ * 		read-mostly		9 gets for every set or remove
+ * 		write-heavy		every other operation is a set or remove
+ *
+ * Scores are the combined throughput of all threads, in operations per us. The number of threads is
+ * JMH's -t (all the cores by default), e.g.
+ *
+ * 		for t in 1 2 4 8 16 32; do gradle jmh -Pjmh="ConcurrentArrayBenchmarks -t $t"; done
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = "-Xmx2g")
+@Threads(Threads.MAX)
+public class ConcurrentArrayBenchmarks
+{
+	static final int LENGTH = 1 << 16;
+	static final int OPS = 1 << 18;
+	static final int BATCH = 10;
+	static final int[] INDICES = new int[OPS];
+	static final Integer[] VALUES = new Integer[LENGTH];
+
+	static
+	{
+		Random random = new Random(8);
+		for (int i = 0; i < OPS; i++)
+		{
+			INDICES[i] = random.nextInt(LENGTH);
+		}
+		for (int i = 0; i < LENGTH; i++)
+		{
+			VALUES[i] = i;
+		}
+	}
+
+	/**
+	 * Table - the shared tables, half full. The workloads set as often as they remove, so they stay
+	 * 		about half full.
+	 */
+	@State(Scope.Benchmark)
+	public static class Table
+	{
+		@Param({"read-mostly", "write-heavy"})
+		public String workload;
+
+		int writes;							// one operation in 'writes' is a set or remove
+		Array<Integer> array = new Array<Integer> (LENGTH);
+		ConcurrentArray<Integer> concurrent = new ConcurrentArray<Integer> (LENGTH);
+
+		@Setup
+		public void setup ()
+		{
+			writes = workload.equals("read-mostly") ? 10 : 2;
+			for (int i = 0; i < LENGTH; i += 2)
+			{
+				array.set(i, VALUES[i]);
+				concurrent.set(i, VALUES[i]);
+			}
+		}
+	}
+
+	/**
+	 * Cursor - the position of one thread in INDICES, each thread starts at a different one.
+	 */
+	@State(Scope.Thread)
+	public static class Cursor
+	{
+		int i;
+
+		@Setup
+		public void setup (ThreadParams params)
+		{
+			i = params.getThreadIndex() * (OPS / params.getThreadCount());
+		}
+
+		int next ()
+		{
+			i = (i + 1) & (OPS - 1);
+			return INDICES[i];
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(BATCH)
+	public long synchronizedArray (Table data, Cursor cursor)
+	{
+		Array<Integer> array = data.array;
+		long sum = 0;
+		for (int k = 0; k < BATCH; k++)
+		{
+			int index = cursor.next();
+			synchronized (array)
+			{
+				if (k % data.writes != 0)
+				{
+					Integer v = array.get(index);
+					if (v != null) sum += v;
+				}
+				else if (array.get(index) == null) array.set(index, VALUES[index]);
+				else array.remove(index);
+			}
+		}
+		return sum;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(BATCH)
+	public long concurrentArray (Table data, Cursor cursor)
+	{
+		ConcurrentArray<Integer> array = data.concurrent;
+		long sum = 0;
+		for (int k = 0; k < BATCH; k++)
+		{
+			int index = cursor.next();
+			if (k % data.writes != 0)
+			{
+				Integer v = array.get(index);
+				if (v != null) sum += v;
+			}
+			else if (array.putIfAbsent(index, VALUES[index]) != null) array.remove(index);
+		}
+		return sum;
+	}
+}
@@ -0,0 +1,217 @@
+package com.nightsky.Blocks;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.BenchmarkParams;
+
+/**
+ * ConcurrentHeapBenchmarks - ConcurrentFibonacciHeap and MultiQueue against a MinFibonacciHeap behind
+ * one global lock:
+ *
+ * 		insert			every thread only inserts
+ * 		mixed			every thread inserts, changes the value of every 4th node it inserted and
+ * 						removes the top on every 8th operation
+ * 		insert+remove	every thread alternates insert and remove on a prefilled queue
+ *
+ * Scores are the combined throughput of all threads, in operations per us. The number of threads is
+ * JMH's -t (all the cores by default), so a sweep is one run per thread count, e.g.
+ *
+ * 		for t in 1 2 4 8 16 32; do gradle jmh -Pjmh="ConcurrentHeapBenchmarks -t $t"; done
+ *
+ * insert and mixed grow the heap for as long as they run, so every iteration starts with a new heap
+ * and the iterations are short.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 200, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 10, time = 200, timeUnit = TimeUnit.MILLISECONDS)
+@Fork(value = 2, jvmArgsAppend = "-Xmx4g")
+@Threads(Threads.MAX)
+public class ConcurrentHeapBenchmarks
+{
+	static final int N = 50000;
+	static final Integer[] VALUES = new Integer[N];
+
+	static
+	{
+		Random random = new Random(5);
+		for (int i = 0; i < N; i++)
+		{
+			VALUES[i] = random.nextInt();
+		}
+	}
+
+	/**
+	 * Cursor - the position of one thread in VALUES, and the nodes it inserted in the current
+	 * 		invocation of a mixed benchmark.
+	 */
+	@State(Scope.Thread)
+	public static class Cursor
+	{
+		int i;
+		@SuppressWarnings("unchecked")
+		HeapNode<Integer>[] mine = (HeapNode<Integer>[]) new HeapNode<?>[8];
+
+		Integer next ()
+		{
+			if (++i == N) i = 0;
+			return VALUES[i];
+		}
+	}
+
+	@State(Scope.Benchmark)
+	public static class Synchronized
+	{
+		MinFibonacciHeap<Integer> heap;
+
+		@Setup(Level.Iteration)
+		public void setup ()
+		{
+			heap = new MinFibonacciHeap<Integer> ();
+		}
+	}
+
+	@State(Scope.Benchmark)
+	public static class Concurrent
+	{
+		ConcurrentFibonacciHeap<Integer> heap;
+
+		@Setup(Level.Iteration)
+		public void setup ()
+		{
+			heap = new ConcurrentFibonacciHeap<Integer> (new MinFibonacciHeap<Integer> ());
+		}
+
+		@TearDown(Level.Iteration)
+		public void tearDown ()
+		{
+			heap.flush();
+		}
+	}
+
+	////////////////////////////////////////////////
+	//
+	//	insert
+	//
+	@Benchmark
+	public HeapNode<Integer> insertSynchronizedFibonacciHeap (Synchronized data, Cursor cursor)
+	{
+		Integer value = cursor.next();
+		synchronized (data.heap)
+		{
+			return data.heap.insert(value);
+		}
+	}
+
+	@Benchmark
+	public HeapNode<Integer> insertConcurrentFibonacciHeap (Concurrent data, Cursor cursor)
+	{
+		return data.heap.insert(cursor.next());
+	}
+
+	////////////////////////////////////////////////
+	//
+	//	mixed
+	//
+	@Benchmark
+	@OperationsPerInvocation(8)
+	public HeapNode<Integer> mixedSynchronizedFibonacciHeap (Synchronized data, Cursor cursor)
+	{
+		MinFibonacciHeap<Integer> heap = data.heap;
+		HeapNode<Integer>[] mine = cursor.mine;
+		HeapNode<Integer> top = null;
+		for (int i = 0; i < 8; i++)
+		{
+			Integer value = cursor.next();
+			synchronized (heap)
+			{
+				mine[i] = heap.insert(value);
+				if ((i & 3) == 3 && mine[i - 2].getNext() != null) heap.changeValue(mine[i - 2], VALUES[(cursor.i * 7) % N]);
+				if (i == 7) top = heap.remove();
+			}
+		}
+		return top;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(8)
+	public HeapNode<Integer> mixedConcurrentFibonacciHeap (Concurrent data, Cursor cursor)
+	{
+		ConcurrentFibonacciHeap<Integer> heap = data.heap;
+		HeapNode<Integer>[] mine = cursor.mine;
+		for (int i = 0; i < 8; i++)
+		{
+			mine[i] = heap.insert(cursor.next());
+			if ((i & 3) == 3) heap.changeValue(mine[i - 2], VALUES[(cursor.i * 7) % N]);
+		}
+		return heap.remove();
+	}
+
+	////////////////////////////////////////////////
+	//
+	//	insert+remove
+	//
+	@State(Scope.Benchmark)
+	public static class Prefilled
+	{
+		MinFibonacciHeap<Integer> heap;
+
+		@Setup(Level.Iteration)
+		public void setup ()
+		{
+			heap = new MinFibonacciHeap<Integer> ();
+			heap.insertAll(VALUES);
+		}
+	}
+
+	/**
+	 * PrefilledMultiQueue - a MultiQueue with 2 shards per benchmark thread.
+	 */
+	@State(Scope.Benchmark)
+	public static class PrefilledMultiQueue
+	{
+		MultiQueue<Integer> queue;
+
+		@Setup(Level.Iteration)
+		public void setup (BenchmarkParams params)
+		{
+			queue = new MultiQueue<Integer> (params.getThreads(), 2);
+			for (int i = 0; i < N; i++) queue.insert(VALUES[i]);
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(2)
+	public int insertRemoveSynchronizedFibonacciHeap (Prefilled data, Cursor cursor)
+	{
+		Integer value = cursor.next();
+		synchronized (data.heap)
+		{
+			data.heap.insert(value);
+			return data.heap.remove().getValue();
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(2)
+	public Integer insertRemoveMultiQueue (PrefilledMultiQueue data, Cursor cursor)
+	{
+		data.queue.insert(cursor.next());
+		return data.queue.remove();
+	}
+}
@@ -0,0 +1,261 @@
+package com.nightsky.Blocks;
+
+import java.util.ArrayDeque;
+import java.util.Comparator;
+import java.util.LinkedList;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * DoubleLinkedListBenchmarks - DoubleLinkedList add/remove/concat/sort and streams against java.util.LinkedList and
+ * ArrayDeque. DoubleLinkedList is intrusive, so its nodes are created once, outside the timed code.
+ *
+ * Scores are ns per element, except concat, which is ns per list joined.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = "-Xmx2g")
+public class DoubleLinkedListBenchmarks
+{
+	static final int N = 1000000;
+	static final int LISTS = 1000;
+	static final int PER_LIST = N / LISTS;
+	static final int SORT_N = 100000;
+
+	@State(Scope.Thread)
+	public static class Nodes
+	{
+		Integer[] values = new Integer[N];
+		@SuppressWarnings("unchecked")
+		HeapNode<Integer>[] nodes = (HeapNode<Integer>[]) new HeapNode<?>[N];
+		DoubleLinkedList<HeapNode<Integer>> list = new DoubleLinkedList<HeapNode<Integer>> ();
+		LinkedList<Integer> linked_list = new LinkedList<Integer> ();
+		ArrayDeque<Integer> deque = new ArrayDeque<Integer> ();
+
+		@Setup
+		public void setup ()
+		{
+			for (int i = 0; i < N; i++)
+			{
+				values[i] = i;
+				nodes[i] = new HeapNode<Integer> (values[i]);
+			}
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(2 * N)
+	public long addRemove (Nodes data)
+	{
+		DoubleLinkedList<HeapNode<Integer>> list = data.list;
+		long sum = 0;
+		for (int i = 0; i < N; i++) list.add(data.nodes[i]);
+		for (int i = 0; i < N; i++) sum += list.remove(data.nodes[i]).getValue();
+		return sum;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(2 * N)
+	public long addRemoveFirstLinkedList (Nodes data)
+	{
+		LinkedList<Integer> list = data.linked_list;
+		long sum = 0;
+		for (int i = 0; i < N; i++) list.add(data.values[i]);
+		for (int i = 0; i < N; i++) sum += list.removeFirst();
+		return sum;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(2 * N)
+	public long addRemoveFirstArrayDeque (Nodes data)
+	{
+		ArrayDeque<Integer> deque = data.deque;
+		long sum = 0;
+		for (int i = 0; i < N; i++) deque.add(data.values[i]);
+		for (int i = 0; i < N; i++) sum += deque.removeFirst();
+		return sum;
+	}
+
+	////////////////////////////////////////////////
+	//
+	//	streams
+	//
+	@State(Scope.Thread)
+	public static class Full
+	{
+		DoubleLinkedList<HeapNode<Integer>> full = new DoubleLinkedList<HeapNode<Integer>> ();
+
+		@Setup
+		public void setup ()
+		{
+			for (int i = 0; i < N; i++) full.add(new HeapNode<Integer> (i));
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(N)
+	public long streamSum (Full data)
+	{
+		return data.full.stream().mapToLong(n -> n.getValue()).sum();
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(N)
+	public long parallelStreamSum (Full data)
+	{
+		return data.full.parallelStream().mapToLong(n -> n.getValue()).sum();
+	}
+
+	////////////////////////////////////////////////
+	//
+	//	sort
+	//
+	static final Comparator<HeapNode<Integer>> BY_VALUE = new Comparator<HeapNode<Integer>> ()
+	{
+		@Override
+		public int compare (HeapNode<Integer> n1, HeapNode<Integer> n2)
+		{
+			return n1.getValue().compareTo(n2.getValue());
+		}
+	};
+
+	/**
+	 * Sort - SORT_N random values, put back into the same order before each invocation.
+	 */
+	@State(Scope.Thread)
+	public static class Sort
+	{
+		Integer[] shuffled = new Integer[SORT_N];
+
+		@Setup
+		public void setup ()
+		{
+			Random random = new Random(11);
+			for (int i = 0; i < SORT_N; i++) shuffled[i] = random.nextInt();
+		}
+	}
+
+	@State(Scope.Thread)
+	public static class SortDoubleLinkedList
+	{
+		@SuppressWarnings("unchecked")
+		HeapNode<Integer>[] nodes = (HeapNode<Integer>[]) new HeapNode<?>[SORT_N];
+		DoubleLinkedList<HeapNode<Integer>> list;
+
+		@Setup
+		public void setup (Sort data)
+		{
+			for (int i = 0; i < SORT_N; i++) nodes[i] = new HeapNode<Integer> (data.shuffled[i]);
+		}
+
+		@Setup(Level.Invocation)
+		public void shuffle ()
+		{
+			// a new list, clear () would hand the nodes to the recycle pool
+			list = new DoubleLinkedList<HeapNode<Integer>> ();
+			for (int i = 0; i < SORT_N; i++) list.add(nodes[i]);
+		}
+	}
+
+	@State(Scope.Thread)
+	public static class SortLinkedList
+	{
+		LinkedList<Integer> list = new LinkedList<Integer> ();
+
+		@Setup(Level.Invocation)
+		public void shuffle (Sort data)
+		{
+			list.clear();
+			for (int i = 0; i < SORT_N; i++) list.add(data.shuffled[i]);
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(SORT_N)
+	public int sort (SortDoubleLinkedList data)
+	{
+		data.list.sort(BY_VALUE);
+		return data.list.getPointer().getValue();
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(SORT_N)
+	public int sortLinkedList (SortLinkedList data)
+	{
+		data.list.sort(null);
+		return data.list.getFirst();
+	}
+
+	////////////////////////////////////////////////
+	//
+	//	concat
+	//
+	/**
+	 * Concat - LISTS lists of PER_LIST nodes each, rebuilt before each invocation joins them into the
+	 * 		first one.
+	 */
+	@State(Scope.Thread)
+	public static class Concat
+	{
+		@SuppressWarnings("unchecked")
+		DoubleLinkedList<HeapNode<Integer>>[] lists = (DoubleLinkedList<HeapNode<Integer>>[]) new DoubleLinkedList<?>[LISTS];
+
+		@Setup(Level.Invocation)
+		public void setup (Nodes data)
+		{
+			for (int l = 0; l < LISTS; l++)
+			{
+				lists[l] = new DoubleLinkedList<HeapNode<Integer>> ();
+				for (int i = l * PER_LIST; i < (l + 1) * PER_LIST; i++) lists[l].add(data.nodes[i]);
+			}
+		}
+	}
+
+	@State(Scope.Thread)
+	public static class ConcatLinkedList
+	{
+		@SuppressWarnings("unchecked")
+		LinkedList<Integer>[] lists = (LinkedList<Integer>[]) new LinkedList<?>[LISTS];
+
+		@Setup(Level.Invocation)
+		public void setup (Nodes data)
+		{
+			for (int l = 0; l < LISTS; l++)
+			{
+				lists[l] = new LinkedList<Integer> ();
+				for (int i = l * PER_LIST; i < (l + 1) * PER_LIST; i++) lists[l].add(data.values[i]);
+			}
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(LISTS - 1)
+	public int concat (Concat data)
+	{
+		for (int l = 1; l < LISTS; l++) data.lists[0].concat(data.lists[l]);
+		return data.lists[0].size();
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(LISTS - 1)
+	public int addAllLinkedList (ConcatLinkedList data)
+	{
+		for (int l = 1; l < LISTS; l++) data.lists[0].addAll(data.lists[l]);
+		return data.lists[0].size();
+	}
+}
@@ -0,0 +1,231 @@
+package com.nightsky.Blocks;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntToDoubleFunction;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * GraphBenchmarks - GraphSearch on synthetic graphs of about 10M edges:
+ *
+ * 		random		V=1M vertices with 10 random out-edges each, weights 1 .. 100
+ * 		grid		1581 x 1581 grid with edges to the 4 neighbours, weights 1 .. 4
+ * 		undirected	V=1M vertices, 5M random edges stored in both directions
+ *
+ * The dijkstra and aStar benchmarks run once with a GraphSearch kept across queries (reuse = true) and
+ * once with a new GraphSearch per query (reuse = false), which is what wrapping the heap by hand
+ * costs: new heap, new distance arrays. Scores are us per query, and ms per search for the searches
+ * that reach the whole graph. Building a graph takes seconds, so there is a single fork.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class GraphBenchmarks
+{
+	static final int RANDOM_VERTICES = 1000000;
+	static final int RANDOM_DEGREE = 10;
+	static final int GRID_SIDE = 1581;
+	static final int UNDIRECTED_EDGES = 5000000;
+	static final int QUERIES = 100;
+	static final int RANDOM_QUERIES = 10;		// an s-t query on the random graph reaches much of it
+
+	@State(Scope.Thread)
+	public static class RandomGraph
+	{
+		@Param({"true", "false"})
+		public boolean reuse;
+
+		GraphSearch search;
+		int[] sources = new int[RANDOM_QUERIES];
+		int[] targets = new int[RANDOM_QUERIES];
+
+		@Setup
+		public void setup ()
+		{
+			search = new GraphSearch (randomGraph ());
+			Random random = new Random(22);
+			for (int q = 0; q < RANDOM_QUERIES; q++)
+			{
+				sources[q] = random.nextInt(RANDOM_VERTICES);
+				targets[q] = random.nextInt(RANDOM_VERTICES);
+			}
+		}
+
+		GraphSearch search ()
+		{
+			return reuse ? search : new GraphSearch (search.getGraph());
+		}
+	}
+
+	@State(Scope.Thread)
+	public static class GridGraph
+	{
+		@Param({"true", "false"})
+		public boolean reuse;
+
+		GraphSearch search;
+		int[] sources = new int[QUERIES];
+		int[] targets = new int[QUERIES];
+
+		@Setup
+		public void setup ()
+		{
+			search = new GraphSearch (gridGraph ());
+			Random random = new Random(23);
+			for (int q = 0; q < QUERIES; q++)
+			{
+				// nearby pairs, the usual case for a route server
+				int x = random.nextInt(GRID_SIDE - 200);
+				int y = random.nextInt(GRID_SIDE - 200);
+				sources[q] = y * GRID_SIDE + x;
+				targets[q] = (y + random.nextInt(200)) * GRID_SIDE + x + random.nextInt(200);
+			}
+		}
+
+		GraphSearch search ()
+		{
+			return reuse ? search : new GraphSearch (search.getGraph());
+		}
+	}
+
+	@State(Scope.Thread)
+	public static class UndirectedGraph
+	{
+		GraphSearch search;
+
+		@Setup
+		public void setup ()
+		{
+			search = new GraphSearch (undirectedGraph ());
+		}
+	}
+
+	@Benchmark
+	@OutputTimeUnit(TimeUnit.MILLISECONDS)
+	public int dijkstraAllRandom (RandomGraph data)
+	{
+		GraphSearch s = data.search();
+		s.dijkstra(0);
+		return s.settled();
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(RANDOM_QUERIES)
+	public double dijkstraRandom (RandomGraph data)
+	{
+		double sum = 0;
+		for (int q = 0; q < RANDOM_QUERIES; q++)
+		{
+			sum += data.search().dijkstra(data.sources[q], data.targets[q]);
+		}
+		return sum;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(QUERIES)
+	public double dijkstraGrid (GridGraph data)
+	{
+		double sum = 0;
+		for (int q = 0; q < QUERIES; q++)
+		{
+			sum += data.search().dijkstra(data.sources[q], data.targets[q]);
+		}
+		return sum;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(QUERIES)
+	public double aStarGrid (GridGraph data)
+	{
+		double sum = 0;
+		for (int q = 0; q < QUERIES; q++)
+		{
+			final int tx = data.targets[q] % GRID_SIDE;
+			final int ty = data.targets[q] / GRID_SIDE;
+			IntToDoubleFunction manhattan = v -> Math.abs(v % GRID_SIDE - tx) + Math.abs(v / GRID_SIDE - ty);
+			sum += data.search().aStar(data.sources[q], data.targets[q], manhattan);
+		}
+		return sum;
+	}
+
+	@Benchmark
+	@OutputTimeUnit(TimeUnit.MILLISECONDS)
+	public double primUndirected (UndirectedGraph data)
+	{
+		return data.search.prim(0);
+	}
+
+	static CsrGraph randomGraph ()
+	{
+		Random r = new Random(3);
+		int[] offsets = new int[RANDOM_VERTICES + 1];
+		int[] targets = new int[RANDOM_VERTICES * RANDOM_DEGREE];
+		double[] weights = new double[targets.length];
+		for (int v = 0; v < RANDOM_VERTICES; v++)
+		{
+			offsets[v + 1] = offsets[v] + RANDOM_DEGREE;
+			for (int e = offsets[v]; e < offsets[v + 1]; e++)
+			{
+				targets[e] = r.nextInt(RANDOM_VERTICES);
+				weights[e] = 1 + r.nextDouble() * 99;
+			}
+		}
+		return new CsrGraph (offsets, targets, weights);
+	}
+
+	static CsrGraph gridGraph ()
+	{
+		Random r = new Random(4);
+		int n = GRID_SIDE * GRID_SIDE;
+		int[] offsets = new int[n + 1];
+		int[] targets = new int[4 * GRID_SIDE * (GRID_SIDE - 1)];
+		double[] weights = new double[targets.length];
+		int e = 0;
+		for (int y = 0; y < GRID_SIDE; y++)
+		{
+			for (int x = 0; x < GRID_SIDE; x++)
+			{
+				int v = y * GRID_SIDE + x;
+				if (x + 1 < GRID_SIDE) targets[e++] = v + 1;
+				if (x > 0) targets[e++] = v - 1;
+				if (y + 1 < GRID_SIDE) targets[e++] = v + GRID_SIDE;
+				if (y > 0) targets[e++] = v - GRID_SIDE;
+				offsets[v + 1] = e;
+			}
+		}
+		for (int i = 0; i < weights.length; i++)
+		{
+			weights[i] = 1 + r.nextDouble() * 3;
+		}
+		return new CsrGraph (offsets, targets, weights);
+	}
+
+	static CsrGraph undirectedGraph ()
+	{
+		Random r = new Random(5);
+		int[] sources = new int[UNDIRECTED_EDGES];
+		int[] targets = new int[UNDIRECTED_EDGES];
+		double[] weights = new double[UNDIRECTED_EDGES];
+		for (int i = 0; i < UNDIRECTED_EDGES; i++)
+		{
+			sources[i] = r.nextInt(RANDOM_VERTICES);
+			targets[i] = r.nextInt(RANDOM_VERTICES);
+			weights[i] = r.nextDouble();
+		}
+		return CsrGraph.fromEdges(RANDOM_VERTICES, sources, targets, weights, true);
+	}
+}
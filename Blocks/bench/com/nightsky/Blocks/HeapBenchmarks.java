@@ -0,0 +1,739 @@
+package com.nightsky.Blocks;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * HeapBenchmarks - the heap engines against java.util.PriorityQueue:
+ *
+ * 		insert+pop			N inserts followed by N pops
+ * 		decrease-key mix	4 decrease-keys per pop, the popped entry is inserted again
+ * 		dijkstra			single-source shortest paths on a random graph
+ * 		top-K				keeping the K largest of a stream of random values
+ * 		upsert				3 upserts of a random id to a random priority per removal of the top
+ *
+ * The workloads that go through PriorityHeap run once per 'engine'; every engine gets its own forks,
+ * so each one is timed with monomorphic PriorityHeap call sites. PriorityQueue has no decrease-key,
+ * so it gets the usual workaround of inserting a new entry and skipping stale ones when they are
+ * popped.
+ *
+ * Scores are ns per heap operation, except dijkstra, which is ns per search.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = "-Xmx2g")
+public class HeapBenchmarks
+{
+	static final int N = 100000;
+	static final int MIX_OPS = 200000;
+	static final int MIX_OPS_WITH_POPS = MIX_OPS + 2 * (MIX_OPS / 4);
+	static final int GRAPH_VERTICES = 100000;
+	static final int GRAPH_DEGREE = 10;
+	static final int STREAM = 1000000;
+
+	/**
+	 * Engine - which PriorityHeap implementation a benchmark runs on.
+	 */
+	@State(Scope.Thread)
+	public static class Engine
+	{
+		@Param({"FibonacciHeap", "PairingHeap", "DaryHeap"})
+		public String engine;
+
+		<T> PriorityHeap<T> create (Comparator<? super T> comparator)
+		{
+			switch (engine)
+			{
+				case "FibonacciHeap":
+					return new MinFibonacciHeap<T> (comparator);
+				case "PairingHeap":
+					return new PairingHeap<T> (comparator);
+				case "DaryHeap":
+					return new DaryHeap<T> (comparator, 4);
+				default:
+					throw new IllegalArgumentException ("unknown engine: " + engine);
+			}
+		}
+	}
+
+	/**
+	 * keyOrder (double[] keys) - orders ids by keys[id], the way Dijkstra implementations use a heap:
+	 * change keys[id], then call nodeValueDecreased ().
+	 */
+	static Comparator<Integer> keyOrder (final double[] keys)
+	{
+		return new Comparator<Integer> ()
+		{
+			@Override
+			public int compare (Integer id1, Integer id2)
+			{
+				return Double.compare(keys[id1], keys[id2]);
+			}
+		};
+	}
+
+	/**
+	 * Entry - PriorityQueue element for the decrease-key workloads.
+	 */
+	static final class Entry
+	{
+		final double key;
+		final int id;
+
+		Entry (double key, int id)
+		{
+			this.key = key;
+			this.id = id;
+		}
+	}
+
+	static final Comparator<Entry> ENTRY_ORDER = new Comparator<Entry> ()
+	{
+		@Override
+		public int compare (Entry e1, Entry e2)
+		{
+			return Double.compare(e1.key, e2.key);
+		}
+	};
+
+	////////////////////////////////////////////////
+	//
+	//	insert+pop
+	//
+	@State(Scope.Thread)
+	public static class InsertPop
+	{
+		Integer[] values = new Integer[N];
+		double[] keys = new double[N];
+
+		@Setup
+		public void setup ()
+		{
+			Random random = new Random(1);
+			for (int i = 0; i < N; i++)
+			{
+				values[i] = random.nextInt();
+				keys[i] = values[i];
+			}
+		}
+	}
+
+	@State(Scope.Thread)
+	public static class Pooled
+	{
+		MinFibonacciHeap<Integer> heap = new MinFibonacciHeap<Integer> ();
+
+		@Setup
+		public void setup ()
+		{
+			heap.setNodePoolCapacity(N);
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(2 * N)
+	public long insertPop (Engine engine, InsertPop data)
+	{
+		PriorityHeap<Integer> heap = engine.create(NaturalOrder.<Integer>get());
+		long sum = 0;
+		for (int i = 0; i < N; i++) heap.insert(data.values[i]);
+		for (int i = 0; i < N; i++) sum += heap.remove().getValue();
+		return sum;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(2 * N)
+	public long insertPopPooledFibonacciHeap (Pooled pooled, InsertPop data)
+	{
+		MinFibonacciHeap<Integer> heap = pooled.heap;
+		long sum = 0;
+		for (int i = 0; i < N; i++) heap.insert(data.values[i]);
+		for (int i = 0; i < N; i++)
+		{
+			HeapNode<Integer> top = heap.remove();
+			sum += top.getValue();
+			heap.release(top);
+		}
+		return sum;
+	}
+
+	@State(Scope.Thread)
+	public static class Metrics
+	{
+		HeapMetrics metrics = new HeapMetrics ();
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(2 * N)
+	public long insertPopFibonacciHeapWithMetrics (Metrics metrics, InsertPop data)
+	{
+		MinFibonacciHeap<Integer> heap = new MinFibonacciHeap<Integer> ();
+		heap.setMetrics(metrics.metrics);
+		long sum = 0;
+		for (int i = 0; i < N; i++) heap.insert(data.values[i]);
+		for (int i = 0; i < N; i++) sum += heap.remove().getValue();
+		return sum + metrics.metrics.getLinks();
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(2 * N)
+	public long insertPopDoubleKeyFibonacciHeap (InsertPop data)
+	{
+		DoubleKeyFibonacciHeap<Object> heap = new DoubleKeyFibonacciHeap<Object> ();
+		long sum = 0;
+		for (int i = 0; i < N; i++) heap.insert(data.keys[i]);
+		for (int i = 0; i < N; i++) sum += (long) heap.remove().getKey();
+		return sum;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(2 * N)
+	public long insertPopCompactFibonacciHeap (InsertPop data)
+	{
+		CompactFibonacciHeap heap = new CompactFibonacciHeap ();
+		long sum = 0;
+		for (int i = 0; i < N; i++) heap.insert(data.keys[i]);
+		for (int i = 0; i < N; i++) sum += (long) heap.key(heap.remove());
+		return sum;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(2 * N)
+	public long insertPopPriorityQueue (InsertPop data)
+	{
+		PriorityQueue<Integer> queue = new PriorityQueue<Integer> ();
+		long sum = 0;
+		for (int i = 0; i < N; i++) queue.add(data.values[i]);
+		for (int i = 0; i < N; i++) sum += queue.poll();
+		return sum;
+	}
+
+	////////////////////////////////////////////////
+	//
+	//	decrease-key mix
+	//
+	@State(Scope.Thread)
+	public static class Mix
+	{
+		double[] initial = new double[N];
+		int[] targets = new int[MIX_OPS];
+		double[] amounts = new double[MIX_OPS];
+		Integer[] changes = new Integer[MIX_OPS];
+
+		@Setup
+		public void setup ()
+		{
+			Random random = new Random(2);
+			for (int i = 0; i < N; i++)
+			{
+				initial[i] = random.nextDouble() * N;
+			}
+			for (int i = 0; i < MIX_OPS; i++)
+			{
+				targets[i] = random.nextInt(N);
+				amounts[i] = random.nextDouble() * 10;
+			}
+			for (int i = 0; i < MIX_OPS; i++)
+			{
+				changes[i] = random.nextInt(N);
+			}
+		}
+	}
+
+	/**
+	 * EngineMix - a heap of N ids on 'engine', rebuilt before every invocation. An invocation is
+	 * 		MIX_OPS_WITH_POPS operations, so the untimed rebuild does not disturb the timing.
+	 */
+	@State(Scope.Thread)
+	public static class EngineMix
+	{
+		double[] keys = new double[N];
+		PriorityHeap<Integer> heap;
+		@SuppressWarnings("unchecked")
+		HeapHandle<Integer>[] nodes = (HeapHandle<Integer>[]) new HeapHandle<?>[N];
+
+		@Setup(Level.Invocation)
+		public void setup (Engine engine, Mix mix)
+		{
+			System.arraycopy(mix.initial, 0, keys, 0, N);
+			heap = engine.create(keyOrder (keys));
+			for (int i = 0; i < N; i++) nodes[i] = heap.insert(i);
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(MIX_OPS_WITH_POPS)
+	public long decreaseKeyMix (EngineMix state, Mix mix)
+	{
+		double[] keys = state.keys;
+		PriorityHeap<Integer> heap = state.heap;
+		HeapHandle<Integer>[] nodes = state.nodes;
+		long sum = 0;
+		for (int i = 0; i < MIX_OPS; i++)
+		{
+			int id = mix.targets[i];
+			keys[id] -= mix.amounts[i];
+			heap.nodeValueDecreased(nodes[id]);
+			if ((i & 3) == 3)
+			{
+				int top_id = heap.remove().getValue();
+				keys[top_id] += 2 * N;
+				nodes[top_id] = heap.insert(top_id);
+				sum += top_id;
+			}
+		}
+		return sum;
+	}
+
+	@State(Scope.Thread)
+	public static class ChangeValue
+	{
+		MinFibonacciHeap<Integer> heap;
+		@SuppressWarnings("unchecked")
+		HeapNode<Integer>[] nodes = (HeapNode<Integer>[]) new HeapNode<?>[N];
+
+		@Setup(Level.Invocation)
+		public void setup (Mix mix)
+		{
+			heap = new MinFibonacciHeap<Integer> ();
+			for (int i = 0; i < N; i++) nodes[i] = heap.insert(mix.changes[i]);
+			heap.insert(heap.remove());
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(MIX_OPS)
+	public int changeValueUpDown (ChangeValue state, Mix mix)
+	{
+		for (int i = 0; i < MIX_OPS; i++)
+		{
+			state.heap.changeValue(state.nodes[mix.targets[i]], mix.changes[i]);
+		}
+		return state.heap.getTop().getValue();
+	}
+
+	@State(Scope.Thread)
+	public static class DoubleKeyMix
+	{
+		DoubleKeyFibonacciHeap<Object> heap;
+		@SuppressWarnings("unchecked")
+		DoubleKeyHeapNode<Object>[] nodes = (DoubleKeyHeapNode<Object>[]) new DoubleKeyHeapNode<?>[N];
+
+		@Setup(Level.Invocation)
+		public void setup (Mix mix)
+		{
+			heap = new DoubleKeyFibonacciHeap<Object> ();
+			for (int i = 0; i < N; i++) nodes[i] = heap.insert(mix.initial[i]);
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(MIX_OPS_WITH_POPS)
+	public long decreaseKeyMixDoubleKeyFibonacciHeap (DoubleKeyMix state, Mix mix)
+	{
+		DoubleKeyFibonacciHeap<Object> heap = state.heap;
+		long sum = 0;
+		for (int i = 0; i < MIX_OPS; i++)
+		{
+			DoubleKeyHeapNode<Object> n = state.nodes[mix.targets[i]];
+			heap.decreaseKey(n, n.getKey() - mix.amounts[i]);
+			if ((i & 3) == 3)
+			{
+				DoubleKeyHeapNode<Object> top = heap.remove();
+				top.key += 2 * N;
+				heap.insert(top);
+				sum += (long) top.getKey();
+			}
+		}
+		return sum;
+	}
+
+	@State(Scope.Thread)
+	public static class CompactMix
+	{
+		CompactFibonacciHeap heap;
+		int[] handles = new int[N];
+		int[] ids = new int[N];
+
+		@Setup(Level.Invocation)
+		public void setup (Mix mix)
+		{
+			heap = new CompactFibonacciHeap ();
+			for (int i = 0; i < N; i++)
+			{
+				handles[i] = heap.insert(mix.initial[i]);
+				ids[handles[i]] = i;
+			}
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(MIX_OPS_WITH_POPS)
+	public long decreaseKeyMixCompactFibonacciHeap (CompactMix state, Mix mix)
+	{
+		CompactFibonacciHeap heap = state.heap;
+		int[] handles = state.handles;
+		int[] ids = state.ids;
+		long sum = 0;
+		for (int i = 0; i < MIX_OPS; i++)
+		{
+			int h = handles[mix.targets[i]];
+			heap.decreaseKey(h, heap.key(h) - mix.amounts[i]);
+			if ((i & 3) == 3)
+			{
+				int top = heap.remove();
+				int top_id = ids[top];
+				int h_new = heap.insert(heap.key(top) + 2 * N);
+				handles[top_id] = h_new;
+				ids[h_new] = top_id;
+				sum += top_id;
+			}
+		}
+		return sum;
+	}
+
+	@State(Scope.Thread)
+	public static class QueueMix
+	{
+		double[] keys = new double[N];
+		PriorityQueue<Entry> queue;
+
+		@Setup(Level.Invocation)
+		public void setup (Mix mix)
+		{
+			System.arraycopy(mix.initial, 0, keys, 0, N);
+			queue = new PriorityQueue<Entry> (N, ENTRY_ORDER);
+			for (int i = 0; i < N; i++) queue.add(new Entry (keys[i], i));
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(MIX_OPS_WITH_POPS)
+	public long decreaseKeyMixPriorityQueue (QueueMix state, Mix mix)
+	{
+		double[] keys = state.keys;
+		PriorityQueue<Entry> queue = state.queue;
+		long sum = 0;
+		for (int i = 0; i < MIX_OPS; i++)
+		{
+			int id = mix.targets[i];
+			keys[id] -= mix.amounts[i];
+			queue.add(new Entry (keys[id], id));
+			if ((i & 3) == 3)
+			{
+				Entry top = queue.poll();
+				while (top.key != keys[top.id]) top = queue.poll();
+				keys[top.id] += 2 * N;
+				queue.add(new Entry (keys[top.id], top.id));
+				sum += top.id;
+			}
+		}
+		return sum;
+	}
+
+	////////////////////////////////////////////////
+	//
+	//	dijkstra
+	//
+	/**
+	 * Graph - random graph in compressed sparse row form: the edges of v are [offsets[v], offsets[v+1]),
+	 * 		with GRAPH_DEGREE edges per vertex of weights 1 .. 100.
+	 */
+	@State(Scope.Thread)
+	public static class Graph
+	{
+		int[] offsets = new int[GRAPH_VERTICES + 1];
+		int[] targets = new int[GRAPH_VERTICES * GRAPH_DEGREE];
+		double[] weights = new double[GRAPH_VERTICES * GRAPH_DEGREE];
+		double[] dist = new double[GRAPH_VERTICES];
+		@SuppressWarnings("unchecked")
+		HeapHandle<Integer>[] nodes = (HeapHandle<Integer>[]) new HeapHandle<?>[GRAPH_VERTICES];
+		@SuppressWarnings("unchecked")
+		DoubleKeyHeapNode<Integer>[] double_key_nodes = (DoubleKeyHeapNode<Integer>[]) new DoubleKeyHeapNode<?>[GRAPH_VERTICES];
+		int[] handles = new int[GRAPH_VERTICES];
+		int[] ids = new int[GRAPH_VERTICES];
+
+		@Setup
+		public void setup ()
+		{
+			Random random = new Random(3);
+			for (int v = 0; v < GRAPH_VERTICES; v++)
+			{
+				offsets[v + 1] = offsets[v] + GRAPH_DEGREE;
+				for (int e = offsets[v]; e < offsets[v + 1]; e++)
+				{
+					targets[e] = random.nextInt(GRAPH_VERTICES);
+					weights[e] = 1 + random.nextDouble() * 99;
+				}
+			}
+		}
+	}
+
+	@Benchmark
+	public double dijkstra (Engine engine, Graph g)
+	{
+		double[] dist = g.dist;
+		HeapHandle<Integer>[] nodes = g.nodes;
+		Arrays.fill(dist, Double.POSITIVE_INFINITY);
+		Arrays.fill(nodes, null);
+		PriorityHeap<Integer> heap = engine.create(keyOrder (dist));
+		dist[0] = 0;
+		nodes[0] = heap.insert(0);
+		while (heap.size() > 0)
+		{
+			int v = heap.remove().getValue();
+			for (int e = g.offsets[v]; e < g.offsets[v + 1]; e++)
+			{
+				int w = g.targets[e];
+				double d = dist[v] + g.weights[e];
+				if (d < dist[w])
+				{
+					dist[w] = d;
+					if (nodes[w] == null) nodes[w] = heap.insert(w);
+					else heap.nodeValueDecreased(nodes[w]);
+				}
+			}
+		}
+		return dist[GRAPH_VERTICES - 1];
+	}
+
+	@Benchmark
+	public double dijkstraDoubleKeyFibonacciHeap (Graph g)
+	{
+		double[] dist = g.dist;
+		DoubleKeyHeapNode<Integer>[] nodes = g.double_key_nodes;
+		Arrays.fill(dist, Double.POSITIVE_INFINITY);
+		Arrays.fill(nodes, null);
+		DoubleKeyFibonacciHeap<Integer> heap = new DoubleKeyFibonacciHeap<Integer> ();
+		dist[0] = 0;
+		nodes[0] = heap.insert(0, 0);
+		while (heap.size() > 0)
+		{
+			int v = heap.remove().getValue();
+			for (int e = g.offsets[v]; e < g.offsets[v + 1]; e++)
+			{
+				int w = g.targets[e];
+				double d = dist[v] + g.weights[e];
+				if (d < dist[w])
+				{
+					dist[w] = d;
+					if (nodes[w] == null) nodes[w] = heap.insert(d, w);
+					else heap.decreaseKey(nodes[w], d);
+				}
+			}
+		}
+		return dist[GRAPH_VERTICES - 1];
+	}
+
+	@Benchmark
+	public double dijkstraCompactFibonacciHeap (Graph g)
+	{
+		double[] dist = g.dist;
+		int[] handles = g.handles;
+		int[] ids = g.ids;
+		Arrays.fill(dist, Double.POSITIVE_INFINITY);
+		Arrays.fill(handles, CompactFibonacciHeap.NIL);
+		CompactFibonacciHeap heap = new CompactFibonacciHeap ();
+		dist[0] = 0;
+		handles[0] = heap.insert(0);
+		ids[handles[0]] = 0;
+		while (heap.size() > 0)
+		{
+			int v = ids[heap.remove()];
+			for (int e = g.offsets[v]; e < g.offsets[v + 1]; e++)
+			{
+				int w = g.targets[e];
+				double d = dist[v] + g.weights[e];
+				if (d < dist[w])
+				{
+					boolean queued = dist[w] != Double.POSITIVE_INFINITY;
+					dist[w] = d;
+					if (!queued)
+					{
+						handles[w] = heap.insert(d);
+						ids[handles[w]] = w;
+					}
+					else
+					{
+						heap.decreaseKey(handles[w], d);
+					}
+				}
+			}
+		}
+		return dist[GRAPH_VERTICES - 1];
+	}
+
+	@Benchmark
+	public double dijkstraPriorityQueue (Graph g)
+	{
+		double[] dist = g.dist;
+		Arrays.fill(dist, Double.POSITIVE_INFINITY);
+		PriorityQueue<Entry> queue = new PriorityQueue<Entry> (16, ENTRY_ORDER);
+		dist[0] = 0;
+		queue.add(new Entry (0, 0));
+		while (!queue.isEmpty())
+		{
+			Entry top = queue.poll();
+			int v = top.id;
+			if (top.key != dist[v]) continue;
+			for (int e = g.offsets[v]; e < g.offsets[v + 1]; e++)
+			{
+				int w = g.targets[e];
+				double d = dist[v] + g.weights[e];
+				if (d < dist[w])
+				{
+					dist[w] = d;
+					queue.add(new Entry (d, w));
+				}
+			}
+		}
+		return dist[GRAPH_VERTICES - 1];
+	}
+
+	////////////////////////////////////////////////
+	//
+	//	top-K
+	//
+	@State(Scope.Thread)
+	public static class TopK
+	{
+		@Param({"100", "10000"})
+		public int k;
+
+		Integer[] stream = new Integer[STREAM];
+
+		@Setup
+		public void setup ()
+		{
+			Random random = new Random(23);
+			for (int i = 0; i < STREAM; i++)
+			{
+				stream[i] = random.nextInt();
+			}
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(STREAM)
+	public long topKBoundedFibonacciHeap (TopK data)
+	{
+		MinFibonacciHeap<Integer> heap = new MinFibonacciHeap<Integer> ();
+		heap.setCapacity(data.k);
+		long kept = 0;
+		for (int i = 0; i < STREAM; i++)
+		{
+			if (heap.offer(data.stream[i])) kept++;
+		}
+		return kept + heap.getTop().getValue();
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(STREAM)
+	public long topKPriorityQueue (TopK data)
+	{
+		int k = data.k;
+		PriorityQueue<Integer> queue = new PriorityQueue<Integer> (k + 1);
+		long kept = 0;
+		for (int i = 0; i < STREAM; i++)
+		{
+			if (queue.size() < k)
+			{
+				queue.add(data.stream[i]);
+				kept++;
+			}
+			else if (data.stream[i] > queue.peek())
+			{
+				queue.poll();
+				queue.add(data.stream[i]);
+				kept++;
+			}
+		}
+		return kept + queue.peek();
+	}
+
+	////////////////////////////////////////////////
+	//
+	//	upsert
+	//
+	@State(Scope.Thread)
+	public static class Upsert
+	{
+		long[] ids = new long[MIX_OPS];
+		double[] priorities = new double[MIX_OPS];
+		IndexedFibonacciHeap heap = new IndexedFibonacciHeap (N);
+
+		@Setup
+		public void setup ()
+		{
+			Random random = new Random(24);
+			for (int i = 0; i < MIX_OPS; i++)
+			{
+				ids[i] = random.nextInt(N) * 31L;
+				priorities[i] = random.nextDouble();
+			}
+		}
+
+		@Setup(Level.Invocation)
+		public void clear ()
+		{
+			heap.clear();
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(MIX_OPS)
+	public long upsertIndexedFibonacciHeap (Upsert data)
+	{
+		IndexedFibonacciHeap heap = data.heap;
+		long sum = 0;
+		for (int i = 0; i < MIX_OPS; i++)
+		{
+			heap.upsert(data.ids[i], data.priorities[i]);
+			if (i % 4 == 3) sum += heap.removeTop();
+		}
+		return sum;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(MIX_OPS)
+	public long upsertFibonacciHeapAndHashMap (Upsert data)
+	{
+		MinFibonacciHeap<Entry> heap = new MinFibonacciHeap<Entry> (ENTRY_ORDER);
+		HashMap<Long, HeapNode<Entry>> index = new HashMap<Long, HeapNode<Entry>> ();
+		long sum = 0;
+		for (int i = 0; i < MIX_OPS; i++)
+		{
+			Entry entry = new Entry (data.priorities[i], i);
+			HeapNode<Entry> n = index.get(data.ids[i]);
+			if (n == null) index.put(data.ids[i], heap.insert(entry));
+			else heap.changeValue(n, entry);
+			if (i % 4 == 3)
+			{
+				HeapNode<Entry> top = heap.remove();
+				index.remove(data.ids[top.getValue().id]);
+				sum += top.getValue().id;
+			}
+		}
+		return sum;
+	}
+}
@@ -0,0 +1,95 @@
+package com.nightsky.Blocks;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * MultiQueueRankError - measures how far MultiQueue.remove () is from an exact delete-min, to tune
+ * the shards per thread ('c') against ordering quality. The queue is kept at a steady size: every
+ * step removes one value and inserts a fresh one. The rank error of a removal is the number of
+ * values still in the queue that are smaller than the one returned (0 for an exact delete-min).
+ *
+ * 		java -cp build/classes/java/main:build/classes/java/jmh com.nightsky.Blocks.MultiQueueRankError [threads] [size] [steps]
+ *
+ * The steps run on one thread, so the figures describe the two-choice selection over
+ * c * threads shards and not interference between threads.
+ */
+public class MultiQueueRankError
+{
+	static final int[] C = {1, 2, 4, 8};
+
+	public static void main (String[] args)
+	{
+		int threads = (args.length > 0) ? Integer.parseInt(args[0]) : 8;
+		int size = (args.length > 1) ? Integer.parseInt(args[1]) : 100000;
+		int steps = (args.length > 2) ? Integer.parseInt(args[2]) : 1000000;
+
+		// keys are distinct, so a key is its own rank among all keys ever inserted
+		int universe = size + steps;
+		Integer[] keys = new Integer[universe];
+		for (int i = 0; i < universe; i++) keys[i] = i;
+		Random random = new Random(6);
+		for (int i = universe - 1; i > 0; i--)
+		{
+			int j = random.nextInt(i + 1);
+			Integer t = keys[i];
+			keys[i] = keys[j];
+			keys[j] = t;
+		}
+
+		System.out.println(String.format("%-10s %-8s %12s %12s %12s", "c", "shards", "mean", "p99", "max"));
+		for (int c : C)
+		{
+			MultiQueue<Integer> queue = new MultiQueue<Integer> (threads, c);
+			Fenwick present = new Fenwick (universe);
+			int next = 0;
+			for (; next < size; next++)
+			{
+				queue.insert(keys[next]);
+				present.add(keys[next], 1);
+			}
+
+			int[] errors = new int[steps];
+			long total = 0;
+			for (int s = 0; s < steps; s++)
+			{
+				int key = queue.remove();
+				errors[s] = present.prefix(key);
+				total += errors[s];
+				present.add(key, -1);
+
+				queue.insert(keys[next]);
+				present.add(keys[next], 1);
+				next++;
+			}
+			Arrays.sort(errors);
+			System.out.println(String.format("%-10d %-8d %12.2f %12d %12d", c, queue.shards(),
+					(double) total / steps, errors[(int) (0.99 * (steps - 1))], errors[steps - 1]));
+		}
+	}
+
+	/**
+	 * Fenwick - counts of present keys, prefix (k) is the number of present keys below k.
+	 */
+	static final class Fenwick
+	{
+		final int[] tree;
+
+		Fenwick (int size)
+		{
+			tree = new int[size + 1];
+		}
+
+		void add (int key, int delta)
+		{
+			for (int i = key + 1; i < tree.length; i += i & -i) tree[i] += delta;
+		}
+
+		int prefix (int key)
+		{
+			int sum = 0;
+			for (int i = key; i > 0; i -= i & -i) sum += tree[i];
+			return sum;
+		}
+	}
+}
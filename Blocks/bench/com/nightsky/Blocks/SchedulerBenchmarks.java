@@ -0,0 +1,198 @@
+package com.nightsky.Blocks;
+
+import java.util.Random;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * SchedulerBenchmarks - the timeout workloads of a network server, where nearly every timeout is
+ * cancelled because its request completes first. Nothing fires during a run.
+ *
+ * 		fixed		N timeouts of 5 s, then all cancelled: one request timeout for every connection
+ * 		random		N timeouts of 1 .. 10 s, a third of them moved earlier, then all cancelled
+ *
+ * each on
+ *
+ * 		DeadlineScheduler				schedule (), reschedule (), cancel ()
+ * 		ScheduledThreadPoolExecutor		schedule (), cancel + schedule, cancel (), with
+ * 										setRemoveOnCancelPolicy (true) so that cancelled tasks leave
+ * 										its queue instead of waiting there for their deadline
+ *
+ * The delays are whole milliseconds. With 'fixed' the timeouts scheduled within one millisecond share
+ * a DeadlineScheduler bucket; with 'random' about N / 9000 do. Scores are ns per schedule, reschedule
+ * or cancel.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = "-Xmx2g")
+public class SchedulerBenchmarks
+{
+	static final int N = 100000;
+	static final int FIXED_OPS = 2 * N;
+	static final int RANDOM_OPS = 2 * N + (N + 2) / 3;		// every third timeout is moved
+
+	static final Runnable TASK = new Runnable ()
+	{
+		@Override
+		public void run ()
+		{
+		}
+	};
+
+	/**
+	 * Delays - 'earlier[i]' is the delay timeout i is moved to, or -1 if it is not moved.
+	 */
+	@State(Scope.Thread)
+	public static class Delays
+	{
+		long[] fixed_delays = new long[N];
+		long[] fixed_earlier = new long[N];
+		long[] random_delays = new long[N];
+		long[] random_earlier = new long[N];
+
+		@Setup
+		public void setup ()
+		{
+			Random random = new Random(25);
+			for (int i = 0; i < N; i++)
+			{
+				fixed_delays[i] = 5000;
+				fixed_earlier[i] = -1;
+				random_delays[i] = 1000 + random.nextInt(9000);
+				random_earlier[i] = (i % 3 == 0) ? random.nextInt((int) random_delays[i]) : -1;
+			}
+		}
+	}
+
+	@State(Scope.Thread)
+	public static class Deadline
+	{
+		DeadlineScheduler scheduler = new DeadlineScheduler (Runnable::run);
+		Timeout[] timeouts = new Timeout[N];
+
+		@TearDown
+		public void tearDown ()
+		{
+			scheduler.shutdown();
+		}
+	}
+
+	@State(Scope.Thread)
+	public static class Executor
+	{
+		ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor (1);
+		@SuppressWarnings("unchecked")
+		ScheduledFuture<Void>[] futures = (ScheduledFuture<Void>[]) new ScheduledFuture<?>[N];
+
+		@Setup
+		public void setup ()
+		{
+			executor.setRemoveOnCancelPolicy(true);
+		}
+
+		@TearDown
+		public void tearDown ()
+		{
+			executor.shutdownNow();
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(FIXED_OPS)
+	public int fixedDeadlineScheduler (Delays delays, Deadline data)
+	{
+		return run (data, delays.fixed_delays, delays.fixed_earlier);
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(RANDOM_OPS)
+	public int randomDeadlineScheduler (Delays delays, Deadline data)
+	{
+		return run (data, delays.random_delays, delays.random_earlier);
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(FIXED_OPS)
+	public int fixedScheduledThreadPoolExecutor (Delays delays, Executor data)
+	{
+		return run (data, delays.fixed_delays, delays.fixed_earlier);
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(RANDOM_OPS)
+	public int randomScheduledThreadPoolExecutor (Delays delays, Executor data)
+	{
+		return run (data, delays.random_delays, delays.random_earlier);
+	}
+
+	/**
+	 * static int run (Deadline data, long[] delays, long[] earlier) - one pass of a workload.
+	 *
+	 * @return int - number of timeouts cancelled.
+	 */
+	static int run (Deadline data, long[] delays, long[] earlier)
+	{
+		DeadlineScheduler scheduler = data.scheduler;
+		Timeout[] timeouts = data.timeouts;
+		int cancelled = 0;
+		for (int i = 0; i < N; i++)
+		{
+			timeouts[i] = scheduler.schedule(TASK, delays[i], TimeUnit.MILLISECONDS);
+		}
+		for (int i = 0; i < N; i++)
+		{
+			if (earlier[i] >= 0) timeouts[i].reschedule(earlier[i], TimeUnit.MILLISECONDS);
+		}
+		for (int i = 0; i < N; i++)
+		{
+			if (timeouts[i].cancel()) cancelled++;
+		}
+		return cancelled;
+	}
+
+	/**
+	 * static int run (Executor data, long[] delays, long[] earlier) - one pass of a workload.
+	 *
+	 * @return int - number of timeouts cancelled.
+	 */
+	@SuppressWarnings("unchecked")
+	static int run (Executor data, long[] delays, long[] earlier)
+	{
+		ScheduledThreadPoolExecutor executor = data.executor;
+		ScheduledFuture<Void>[] futures = data.futures;
+		int cancelled = 0;
+		for (int i = 0; i < N; i++)
+		{
+			futures[i] = (ScheduledFuture<Void>) executor.schedule(TASK, delays[i], TimeUnit.MILLISECONDS);
+		}
+		for (int i = 0; i < N; i++)
+		{
+			if (earlier[i] >= 0)
+			{
+				futures[i].cancel(false);
+				futures[i] = (ScheduledFuture<Void>) executor.schedule(TASK, earlier[i], TimeUnit.MILLISECONDS);
+			}
+		}
+		for (int i = 0; i < N; i++)
+		{
+			if (futures[i].cancel(false)) cancelled++;
+		}
+		return cancelled;
+	}
+}
@@ -0,0 +1,108 @@
+package com.nightsky.Blocks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * SnapshotBenchmarks - getting a warm FibonacciHeap of N values back after a restart:
+ *
+ * 		re-insert		insert every value into a new heap, then pop once so it is consolidated
+ * 		restore			SnapshotReader.readHeap () of a snapshot of the consolidated heap
+ * 		write			SnapshotWriter.writeHeap () of the consolidated heap
+ *
+ * The snapshot lives in a temporary file, so the restore numbers are for a file in the page cache.
+ * Scores are ns per value.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = "-Xmx2g")
+public class SnapshotBenchmarks
+{
+	static final int N = 1000000;
+
+	@State(Scope.Thread)
+	public static class Snapshot
+	{
+		Integer[] values = new Integer[N];
+		MinFibonacciHeap<Integer> heap;
+		Path file;
+
+		@Setup
+		public void setup () throws IOException
+		{
+			Random random = new Random(19);
+			for (int i = 0; i < N; i++)
+			{
+				values[i] = random.nextInt();
+			}
+			heap = new MinFibonacciHeap<Integer> ();
+			for (int i = 0; i < N; i++) heap.insert(values[i]);
+			heap.insert(Integer.MIN_VALUE);
+			heap.remove();
+
+			file = Files.createTempFile("blocks", ".snapshot");
+			write (heap, file);
+		}
+
+		@TearDown
+		public void tearDown () throws IOException
+		{
+			Files.delete(file);
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(N)
+	public int reinsert (Snapshot data)
+	{
+		MinFibonacciHeap<Integer> heap = new MinFibonacciHeap<Integer> ();
+		for (int i = 0; i < N; i++) heap.insert(data.values[i]);
+		return heap.remove().getValue();
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(N)
+	public int restore (Snapshot data) throws IOException
+	{
+		MinFibonacciHeap<Integer> heap = new MinFibonacciHeap<Integer> ();
+		try (SnapshotReader reader = new SnapshotReader (data.file))
+		{
+			reader.readHeap(heap, SnapshotCodecs.INTEGER);
+		}
+		return heap.getTop().getValue();
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(N)
+	public long write (Snapshot data) throws IOException
+	{
+		write (data.heap, data.file);
+		return Files.size(data.file);
+	}
+
+	static void write (FibonacciHeap<Integer> heap, Path file) throws IOException
+	{
+		try (SnapshotWriter writer = new SnapshotWriter (file))
+		{
+			writer.writeHeap(heap, SnapshotCodecs.INTEGER);
+		}
+	}
+}
@@ -0,0 +1,100 @@
+package com.nightsky.Blocks;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * HeapEvents - the JFR events committed by a HeapMetrics created with jfr_events. This is the only
+ * class that refers to jdk.jfr, so it lives in the jfr/ source folder, which is built for Java 11
+ * while src/ is built for Java 8. HeapMetrics loads it by name and does without events when it is
+ * missing or the JVM has no jdk.jfr module.
+ *
+ * Like any JFR event they can be turned on and given a threshold in the recording settings, e.g.
+ *
+ * 		-XX:StartFlightRecording:settings=profile,+com.nightsky.Blocks.HeapConsolidation#threshold=1ms
+ *
+ * (JDK 17+ syntax), which records only the consolidations that took 1 ms or more.
+ */
+final class HeapEvents implements HeapEventSink
+{
+	HeapEvents ()
+	{
+	}
+
+	@Name("com.nightsky.Blocks.HeapConsolidation")
+	@Label("Heap Consolidation")
+	@Category({"Blocks", "FibonacciHeap"})
+	@Description("Linking of the root list of a FibonacciHeap during remove ()")
+	static final class Consolidation extends Event
+	{
+		@Label("Root List Length")
+		@Description("Roots before consolidating")
+		int rootListLength;
+
+		@Label("Links")
+		int links;
+
+		@Label("Max Degree")
+		@Description("Largest degree of a root afterwards")
+		int maxDegree;
+
+		@Label("Heap Size")
+		int heapSize;
+	}
+
+	@Name("com.nightsky.Blocks.HeapCascadingCut")
+	@Label("Heap Cascading Cut")
+	@Category({"Blocks", "FibonacciHeap"})
+	@Description("Marked parents cut to the root list after a decrease-key or delete")
+	static final class CascadingCut extends Event
+	{
+		@Label("Cascaded")
+		int cascaded;
+	}
+
+	/**
+	 * public Object beginConsolidation () - starts timing a Consolidation, null if it is not enabled.
+	 * 		The result is typed Object so that HeapMetrics does not refer to jdk.jfr itself.
+	 */
+	@Override
+	public Object beginConsolidation ()
+	{
+		Consolidation event = new Consolidation ();
+		if (!event.isEnabled())
+		{
+			return null;
+		}
+		event.begin();
+		return event;
+	}
+
+	@Override
+	public void endConsolidation (Object started, int root_list_length, int links, int max_degree, int heap_size)
+	{
+		Consolidation event = (Consolidation) started;
+		event.end();
+		if (event.shouldCommit())
+		{
+			event.rootListLength = root_list_length;
+			event.links = links;
+			event.maxDegree = max_degree;
+			event.heapSize = heap_size;
+			event.commit();
+		}
+	}
+
+	@Override
+	public void cascadingCut (int cascaded)
+	{
+		CascadingCut event = new CascadingCut ();
+		if (!event.isEnabled())
+		{
+			return;
+		}
+		event.cascaded = cascaded;
+		event.commit();
+	}
+}
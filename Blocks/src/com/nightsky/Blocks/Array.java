@@ -1,11 +1,17 @@
 package com.nightsky.Blocks;
 
+import java.util.Arrays;
 import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 public class Array<E> implements Iterable<E>, Iterate<E>{
 	private static final String TAG = "GameBase [Array]";
 	
 	private Object[] a;
+	private long[] bits;		// occupancy bitmap, bit i is set when a[i] holds a value
 	private int length;
 	private int size;
 	
@@ -13,6 +19,7 @@ public class Array<E> implements Iterable<E>, Iterate<E>{
 	{
 		this.length = length;
 		a = new Object[length];
+		bits = new long[Bits.words(length)];
 		size = 0;
 	}
 	
@@ -20,6 +27,7 @@ public class Array<E> implements Iterable<E>, Iterate<E>{
 	{
 		length = 1;
 		a = new Object[length];
+		bits = new long[1];
 		size = 0;
 	}
 	
@@ -63,9 +71,10 @@ public class Array<E> implements Iterable<E>, Iterate<E>{
 					a_new[i] = a[i];
 				}
 				a = a_new;
+				bits = Bits.grow(bits, length_new);
 				length = length_new;
 			}
-			if (a[index] == null)
+			if (Bits.set(bits, index))
 			{
 				
 				size++;
@@ -81,39 +90,80 @@ public class Array<E> implements Iterable<E>, Iterate<E>{
 		return null;
 	}
 	
+	/**
+	 * public void remove (int index) - empties slot 'index', leaving a hole. Nothing happens if it
+	 * is empty already.
+	 * 
+	 * @param int index
+	 */
 	public void remove (int index)
 	{
-		a[index] = null;
-		size--;
+		if (index < length && Bits.clear(bits, index))
+		{
+			a[index] = null;
+			size--;
+		}
+	}
+	
+	/**
+	 * public int nextSetIndex (int from) - first index at or after 'from' that holds a value. Holes
+	 * are skipped 64 slots at a time.
+	 * 
+	 * @param int from
+	 * @return int index, or -1 if there is none.
+	 */
+	public int nextSetIndex (int from)
+	{
+		return Bits.nextSetBit(bits, from);
+	}
+	
+	/**
+	 * public void compact () - moves the values to indices 0 .. size-1, keeping their order, so that
+	 * there are no holes left. Indices of the moved values change.
+	 */
+	public void compact ()
+	{
+		int to = 0;
+		for (int from = Bits.nextSetBit(bits, 0); from >= 0; from = Bits.nextSetBit(bits, from + 1))
+		{
+			a[to++] = a[from];
+		}
+		for (int i = to; i < length; i++)
+		{
+			a[i] = null;
+		}
+		Arrays.fill(bits, 0L);
+		for (int w = 0; w < (size >>> 6); w++)
+		{
+			bits[w] = -1L;
+		}
+		if ((size & 63) != 0)
+		{
+			bits[size >>> 6] = (1L << size) - 1;
+		}
 	}
 	
 	////////////////////////////////////////////////
 	//
-	//	Iterator-less iterations
+	//	Iterator-less iterations - only the slots holding a value are visited
 	//
-	private int pointer = 0;
-	private int value_seen = 0;
+	private int pointer = -1;
 	@Override
 	public void begin ()
 	{
-		pointer = 0;
-		value_seen = 0;
+		pointer = Bits.nextSetBit(bits, 0);
 	}
 	@Override
 	public E next ()
 	{
 		E value = (E) a[pointer];
-		if (value != null)
-		{
-			value_seen++;
-		}
-		pointer++;
+		pointer = Bits.nextSetBit(bits, pointer + 1);
 		return value;
 	}
 	@Override
 	public boolean hasNext ()
 	{
-		return (value_seen < size) && (pointer < length);
+		return pointer >= 0;
 	}
 	
 	/**
@@ -137,29 +187,24 @@ public class Array<E> implements Iterable<E>, Iterate<E>{
 	}
 
 	/**
-	 * public Iterator<E> iterator() - this will iterate through the array but will stop after all non-null values 
-	 * have been encountered.
+	 * public Iterator<E> iterator() - this will iterate through the values of the array, skipping
+	 * the empty slots.
 	 * 
 	 */
 	@Override
 	public Iterator<E> iterator() {
 		Iterator<E> iterator = new Iterator<E> () {
-			int current = -1;
-			int values_seen = 0;
+			int current = Bits.nextSetBit(bits, 0);
 			
 			@Override
 			public boolean hasNext() {
-				return current < length-1 && values_seen < size;
+				return current >= 0;
 			}
 
 			@Override
 			public E next() {
-				current++;
 				E obj = (E)a[current];
-				if (obj != null)
-				{
-					values_seen++;
-				}
+				current = Bits.nextSetBit(bits, current + 1);
 				return obj;
 			}
 
@@ -171,9 +216,142 @@ public class Array<E> implements Iterable<E>, Iterate<E>{
 		return iterator;
 	}
 
+	/**
+	 * public void forEach (Consumer<? super E> action) - calls 'action' for every value, in index order,
+	 * without creating an iterator. 'action' must not modify the array.
+	 * 
+	 * @param Consumer<? super E> action
+	 */
+	@Override
+	@SuppressWarnings("unchecked")
+	public void forEach (Consumer<? super E> action)
+	{
+		for (int i = Bits.nextSetBit(bits, 0); i >= 0; i = Bits.nextSetBit(bits, i + 1))
+		{
+			action.accept((E) a[i]);
+		}
+	}
+	
+	/**
+	 * public Spliterator<E> spliterator () - splits by index range and skips the empty slots. The sizes
+	 * of the halves are exact, they are counted in the occupancy bitmap. The array must not be
+	 * modified while the spliterator is in use.
+	 * 
+	 * @return Spliterator<E>
+	 */
+	@Override
+	public Spliterator<E> spliterator ()
+	{
+		return new ArraySpliterator<E> (a, bits, 0, length, size);
+	}
+	
+	/**
+	 * public Stream<E> stream () - sequential stream of the values.
+	 * 
+	 * @return Stream<E>
+	 */
+	public Stream<E> stream ()
+	{
+		return StreamSupport.stream(spliterator (), false);
+	}
+	
+	/**
+	 * public Stream<E> parallelStream () - parallel stream of the values.
+	 * 
+	 * @return Stream<E>
+	 */
+	public Stream<E> parallelStream ()
+	{
+		return StreamSupport.stream(spliterator (), true);
+	}
+	
+	/**
+	 * ArraySpliterator<E> - the values in [origin, fence) of an Array's slots. 'remaining' is the exact
+	 * number of them, or -1 until it is counted.
+	 */
+	private static final class ArraySpliterator<E> implements Spliterator<E>
+	{
+		private final Object[] a;
+		private final long[] bits;
+		private int origin;
+		private final int fence;
+		private int remaining;
+		
+		ArraySpliterator (Object[] a, long[] bits, int origin, int fence, int remaining)
+		{
+			this.a = a;
+			this.bits = bits;
+			this.origin = origin;
+			this.fence = fence;
+			this.remaining = remaining;
+		}
+		
+		@Override
+		@SuppressWarnings("unchecked")
+		public boolean tryAdvance (Consumer<? super E> action)
+		{
+			int i = Bits.nextSetBit(bits, origin);
+			if (i < 0 || i >= fence)
+			{
+				origin = fence;
+				remaining = 0;
+				return false;
+			}
+			origin = i + 1;
+			if (remaining > 0) remaining--;
+			action.accept((E) a[i]);
+			return true;
+		}
+		
+		@Override
+		@SuppressWarnings("unchecked")
+		public void forEachRemaining (Consumer<? super E> action)
+		{
+			int i = Bits.nextSetBit(bits, origin);
+			while (i >= 0 && i < fence)
+			{
+				action.accept((E) a[i]);
+				i = Bits.nextSetBit(bits, i + 1);
+			}
+			origin = fence;
+			remaining = 0;
+		}
+		
+		@Override
+		public Spliterator<E> trySplit ()
+		{
+			int mid = (origin + fence) >>> 1;
+			if (mid <= origin || estimateSize () < 2)
+			{
+				return null;
+			}
+			ArraySpliterator<E> prefix = new ArraySpliterator<E> (a, bits, origin, mid, -1);
+			origin = mid;
+			remaining = -1;
+			return prefix;
+		}
+		
+		@Override
+		public long estimateSize ()
+		{
+			if (remaining < 0)
+			{
+				remaining = Bits.count(bits, origin, fence);
+			}
+			return remaining;
+		}
+		
+		@Override
+		public int characteristics ()
+		{
+			return ORDERED | SIZED | SUBSIZED | NONNULL;
+		}
+	}
+	
 	@Override
 	public void clear() {
 		a = new Object[length];
+		Arrays.fill(bits, 0L);
 		size = 0;
 	}
 }
\ No newline at end of file
@@ -0,0 +1,83 @@
+package com.nightsky.Blocks;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * ArrayCursor<E> - cursor over the values of an Array, owned by the caller. Unlike Array.begin ()/next (),
+ * which keep their position in the Array, each cursor has its own, so nested loops and several readers
+ * can walk the same Array at once. reset () points the cursor at the start again (of the same or another
+ * Array), so one cursor serves any number of loops without allocating.
+ *
+ * 		cursor.reset(array);
+ * 		while (cursor.hasNext()) { E value = cursor.next(); ... }
+ *
+ * The Array must not be modified while a cursor walks it.
+ */
+public class ArrayCursor<E> implements Iterator<E>
+{
+	private Array<E> array;
+	private int index = -1;		// index of the next value, -1 when there is none
+	private int last = -1;		// index of the value returned by the last next ()
+
+	public ArrayCursor ()
+	{
+	}
+
+	public ArrayCursor (Array<E> array)
+	{
+		reset (array);
+	}
+
+	/**
+	 * public ArrayCursor<E> reset (Array<E> array) - moves the cursor to the first value of 'array'.
+	 *
+	 * @param Array<E> array
+	 * @return ArrayCursor<E> this cursor.
+	 */
+	public ArrayCursor<E> reset (Array<E> array)
+	{
+		this.array = array;
+		index = array.nextSetIndex(0);
+		last = -1;
+		return this;
+	}
+
+	/**
+	 * public ArrayCursor<E> reset () - moves the cursor back to the first value of its Array.
+	 *
+	 * @return ArrayCursor<E> this cursor.
+	 */
+	public ArrayCursor<E> reset ()
+	{
+		return reset (array);
+	}
+
+	@Override
+	public boolean hasNext ()
+	{
+		return index >= 0;
+	}
+
+	@Override
+	public E next ()
+	{
+		if (index < 0)
+		{
+			throw new NoSuchElementException ();
+		}
+		last = index;
+		index = array.nextSetIndex(index + 1);
+		return array.get(last);
+	}
+
+	/**
+	 * public int index () - index of the value returned by the last next (), -1 before the first.
+	 *
+	 * @return int
+	 */
+	public int index ()
+	{
+		return last;
+	}
+}
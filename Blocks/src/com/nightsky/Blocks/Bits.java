@@ -0,0 +1,115 @@
+package com.nightsky.Blocks;
+
+import java.util.Arrays;
+
+/**
+ * Bits - static helpers for the long[] occupancy bitmaps of the array classes. Bit i is bit (i & 63)
+ * of word (i >>> 6).
+ */
+final class Bits
+{
+	private Bits ()
+	{
+	}
+
+	/**
+	 * static int words (int length) - number of longs needed for 'length' bits.
+	 */
+	static int words (int length)
+	{
+		return (length + 63) >>> 6;
+	}
+
+	/**
+	 * static long[] grow (long[] bits, int length) - 'bits' copied into a bitmap large enough for
+	 * 		'length' bits, or 'bits' itself if it already is.
+	 */
+	static long[] grow (long[] bits, int length)
+	{
+		int words = words (length);
+		return (words <= bits.length) ? bits : Arrays.copyOf(bits, words);
+	}
+
+	static boolean get (long[] bits, int i)
+	{
+		return (bits[i >>> 6] & (1L << i)) != 0;
+	}
+
+	/**
+	 * static boolean set (long[] bits, int i) - sets bit i.
+	 *
+	 * @return boolean - 'true' if the bit was clear before.
+	 */
+	static boolean set (long[] bits, int i)
+	{
+		long word = bits[i >>> 6];
+		long mask = 1L << i;
+		bits[i >>> 6] = word | mask;
+		return (word & mask) == 0;
+	}
+
+	/**
+	 * static boolean clear (long[] bits, int i) - clears bit i.
+	 *
+	 * @return boolean - 'true' if the bit was set before.
+	 */
+	static boolean clear (long[] bits, int i)
+	{
+		long word = bits[i >>> 6];
+		long mask = 1L << i;
+		bits[i >>> 6] = word & ~mask;
+		return (word & mask) != 0;
+	}
+
+	/**
+	 * static int nextSetBit (long[] bits, int from) - index of the first set bit at or after 'from',
+	 * 		skipping 64 clear bits per step, or -1 if there is none.
+	 */
+	static int nextSetBit (long[] bits, int from)
+	{
+		if (from < 0) from = 0;
+		int w = from >>> 6;
+		if (w >= bits.length)
+		{
+			return -1;
+		}
+		long word = bits[w] & (-1L << from);
+		while (true)
+		{
+			if (word != 0)
+			{
+				return (w << 6) + Long.numberOfTrailingZeros(word);
+			}
+			if (++w == bits.length)
+			{
+				return -1;
+			}
+			word = bits[w];
+		}
+	}
+
+	/**
+	 * static int count (long[] bits, int from, int to) - number of set bits in [from, to).
+	 */
+	static int count (long[] bits, int from, int to)
+	{
+		if (from >= to)
+		{
+			return 0;
+		}
+		int w_from = from >>> 6;
+		int w_to = (to - 1) >>> 6;
+		long first = -1L << from;
+		long last = -1L >>> -to;
+		if (w_from == w_to)
+		{
+			return Long.bitCount(bits[w_from] & first & last);
+		}
+		int count = Long.bitCount(bits[w_from] & first);
+		for (int w = w_from + 1; w < w_to; w++)
+		{
+			count += Long.bitCount(bits[w]);
+		}
+		return count + Long.bitCount(bits[w_to] & last);
+	}
+}
@@ -0,0 +1,550 @@
+package com.nightsky.Blocks;
+
+import java.util.Arrays;
+
+/**
+ * CompactFibonacciHeap - a min Fibonacci heap with double keys that keeps its nodes as parallel
+ * primitive arrays instead of HeapNode objects. A node is an int handle into those arrays:
+ *
+ * 		key[h], parent[h], child[h], next[h], previous[h], state[h] (degree | mark bit)
+ *
+ * which comes to 25 bytes per entry with no object headers and no per-node children list.
+ * The arrays are split into pages of PAGE_SIZE entries. Growing the heap adds pages, so existing
+ * entries are never copied and a large heap does not need twice its size during a resize.
+ *
+ * Handles of removed nodes are recycled by later inserts.
+ */
+public class CompactFibonacciHeap
+{
+	public static final int NIL = -1;				// 'null' handle
+
+	private static final int FREE = -2;				// previous[h] of a handle on the free list
+	private static final int PAGE_SHIFT = 16;
+	private static final int PAGE_SIZE = 1 << PAGE_SHIFT;
+	private static final int PAGE_MASK = PAGE_SIZE - 1;
+	private static final int MARK = 0x80;			// state[h] = mark bit | degree
+	private static final int DEGREE = 0x7f;
+
+	private double[][] key_pages;
+	private int[][] parent_pages;
+	private int[][] child_pages;
+	private int[][] next_pages;
+	private int[][] previous_pages;
+	private byte[][] state_pages;
+	private int num_pages;
+
+	private int num_handles;						// handles [0, num_handles) have been handed out at least once
+	private int free = NIL;							// free handles, chained through next[]
+
+	private int top = NIL;							// handle of the smallest key, also the entry into the root list
+	private int num_roots;
+	private int num_nodes;
+
+	private int[] degrees;							// degrees[] used during consolidation, kept between removes
+
+	public CompactFibonacciHeap ()
+	{
+		key_pages = new double[1][];
+		parent_pages = new int[1][];
+		child_pages = new int[1][];
+		next_pages = new int[1][];
+		previous_pages = new int[1][];
+		state_pages = new byte[1][];
+		degrees = new int[16];
+		Arrays.fill (degrees, NIL);
+	}
+
+	/**
+	 * public int insert (double key) - adds a new node to the root list and returns its handle.
+	 * 		Inserts are lazy and are only consolidated by remove ().
+	 *
+	 * @param double key
+	 * @return int handle of the inserted node.
+	 */
+	public int insert (double key)
+	{
+		int h = allocate ();
+		key_pages[h >>> PAGE_SHIFT][h & PAGE_MASK] = key;
+		setParent (h, NIL);
+		setChild (h, NIL);
+		setState (h, 0);
+		addRoot (h);
+		if (key < key (top))
+		{
+			top = h;
+		}
+		num_nodes++;
+		return h;
+	}
+
+	/**
+	 * public int getTop () - returns the handle of the smallest key, or NIL if the heap is empty.
+	 *
+	 * @return int handle
+	 */
+	public int getTop ()
+	{
+		return top;
+	}
+
+	/**
+	 * public double key (int h) - returns the key of node 'h'. A handle returned by remove () can still
+	 * 		be read until the next insert, which may reuse it.
+	 *
+	 * @param int h
+	 * @return double key
+	 */
+	public double key (int h)
+	{
+		return key_pages[h >>> PAGE_SHIFT][h & PAGE_MASK];
+	}
+
+	/**
+	 * public boolean contains (int h) - true if 'h' is a node currently in this heap.
+	 *
+	 * @param int h
+	 * @return boolean
+	 */
+	public boolean contains (int h)
+	{
+		return h >= 0 && h < num_handles && previous (h) != FREE;
+	}
+
+	/**
+	 * public int remove () - removes the node with the smallest key and returns its handle. The handle
+	 * 		goes back to the free list, see key (int).
+	 *
+	 * @return int handle, or NIL if the heap is empty.
+	 */
+	public int remove ()
+	{
+		int z = top;
+		if (z == NIL)
+		{
+			return NIL;
+		}
+
+		promoteChildren (z);
+
+		// Unlink 'top' from the root list
+		if (next (z) == z)
+		{
+			top = NIL;
+		}
+		else
+		{
+			int prev = previous (z);
+			int next = next (z);
+			setNext (prev, next);
+			setPrevious (next, prev);
+			top = next;
+		}
+		num_roots--;
+		num_nodes--;
+		release (z);
+
+		if (top != NIL)
+		{
+			consolidate ();
+		}
+		return z;
+	}
+
+	/**
+	 * public void decreaseKey (int h, double key) - lowers the key of 'h', cutting it from its parent
+	 * 		(and cascading) if it now beats the parent.
+	 *
+	 * @param int h - handle of a node in this heap
+	 * @param double key - new key, must not be larger than the current key
+	 */
+	public void decreaseKey (int h, double key)
+	{
+		double old = key (h);
+		if (key > old)
+		{
+			throw new IllegalArgumentException ("decreaseKey() new key " + key + " is larger than current key " + old);
+		}
+		key_pages[h >>> PAGE_SHIFT][h & PAGE_MASK] = key;
+		int p = parent (h);
+		if (p != NIL && key < key (p))
+		{
+			cut (h, p);
+			cascadingCut (p);
+		}
+		if (key < key (top))
+		{
+			top = h;
+		}
+	}
+
+	/**
+	 * public void increaseKey (int h, double key) - raises the key of 'h'. Its children, which may now
+	 * 		belong above it, go to the root list, and so does 'h' (with cascading cuts, as in
+	 * 		decreaseKey ()); the next remove () consolidates them. Only when 'h' is the top is the root
+	 * 		list consolidated right away, to find the new top.
+	 *
+	 * @param int h - handle of a node in this heap
+	 * @param double key - new key, must not be smaller than the current key
+	 */
+	public void increaseKey (int h, double key)
+	{
+		double old = key (h);
+		if (key < old)
+		{
+			throw new IllegalArgumentException ("increaseKey() new key " + key + " is smaller than current key " + old);
+		}
+		key_pages[h >>> PAGE_SHIFT][h & PAGE_MASK] = key;
+		int p = parent (h);
+		if (p != NIL)
+		{
+			cut (h, p);
+			cascadingCut (p);
+		}
+		promoteChildren (h);
+		setChild (h, NIL);
+		setState (h, 0);
+		if (h == top)
+		{
+			consolidate ();
+		}
+	}
+
+	/**
+	 * public void delete (int h) - removes 'h' from the heap wherever it is. It is cut to the root list
+	 * 		(with cascading cuts, as in decreaseKey ()), made the top and removed, so it costs the same
+	 * 		as remove (). The handle goes back to the free list.
+	 *
+	 * @param int h - handle of a node in this heap
+	 */
+	public void delete (int h)
+	{
+		int p = parent (h);
+		if (p != NIL)
+		{
+			cut (h, p);
+			cascadingCut (p);
+		}
+		top = h;
+		remove ();
+	}
+
+	/**
+	 * public int size () - returns the number of nodes in the whole heap.
+	 *
+	 * @return int - size of the heap.
+	 */
+	public int size ()
+	{
+		return num_nodes;
+	}
+
+	/**
+	 * public int capacity () - number of handles backed by storage, including free ones.
+	 *
+	 * @return int
+	 */
+	public int capacity ()
+	{
+		return num_pages << PAGE_SHIFT;
+	}
+
+	/**
+	 * public void clear () - empties the heap in O(1), keeping its pages for the next inserts. Handles
+	 * 		are handed out from 0 again, so every handle of the old contents becomes invalid.
+	 */
+	public void clear ()
+	{
+		num_handles = 0;
+		free = NIL;
+		top = NIL;
+		num_roots = 0;
+		num_nodes = 0;
+	}
+
+	/**
+	 * private void consolidate () - links roots of equal degree until every root has a different degree,
+	 * 		then points 'top' at the smallest root.
+	 */
+	private void consolidate ()
+	{
+		int max_degree = 0;
+		int w = top;
+		for (int i = num_roots; i > 0; i--)
+		{
+			int next = next (w);
+			int x = w;
+			int d = state (x) & DEGREE;
+			while (true)
+			{
+				if (d >= degrees.length)
+				{
+					growDegrees (d);
+				}
+				int y = degrees[d];
+				if (y == NIL)
+				{
+					break;
+				}
+				degrees[d] = NIL;
+				if (key (y) < key (x))
+				{
+					int t = x;
+					x = y;
+					y = t;
+				}
+				link (y, x);
+				d++;
+			}
+			degrees[d] = x;
+			if (d > max_degree)
+			{
+				max_degree = d;
+			}
+			w = next;
+		}
+
+		top = NIL;
+		for (int d = 0; d <= max_degree; d++)
+		{
+			int x = degrees[d];
+			if (x != NIL)
+			{
+				degrees[d] = NIL;
+				if (top == NIL || key (x) < key (top))
+				{
+					top = x;
+				}
+			}
+		}
+	}
+
+	/**
+	 * private void promoteChildren (int z) - moves the children of root 'z' into the root list after it,
+	 * 		unmarked. 'z' keeps its child and degree fields, the caller resets or discards them.
+	 */
+	private void promoteChildren (int z)
+	{
+		int first = child (z);
+		if (first == NIL)
+		{
+			return;
+		}
+		int c = first;
+		do
+		{
+			setParent (c, NIL);
+			setState (c, state (c) & DEGREE);
+			c = next (c);
+		} while (c != first);
+
+		int last = previous (first);
+		int z_next = next (z);
+		setNext (z, first);
+		setPrevious (first, z);
+		setNext (last, z_next);
+		setPrevious (z_next, last);
+		num_roots += state (z) & DEGREE;
+	}
+
+	private void growDegrees (int d)
+	{
+		int length_old = degrees.length;
+		int[] degrees_new = new int[Math.max (d + 1, 2 * length_old)];
+		System.arraycopy (degrees, 0, degrees_new, 0, length_old);
+		Arrays.fill (degrees_new, length_old, degrees_new.length, NIL);
+		degrees = degrees_new;
+	}
+
+	/**
+	 * private void link (int y, int x) - removes root 'y' from the root list and makes it a child of root 'x'.
+	 */
+	private void link (int y, int x)
+	{
+		int prev = previous (y);
+		int next = next (y);
+		setNext (prev, next);
+		setPrevious (next, prev);
+		num_roots--;
+
+		setParent (y, x);
+		setState (y, state (y) & DEGREE);
+		int c = child (x);
+		if (c == NIL)
+		{
+			setNext (y, y);
+			setPrevious (y, y);
+			setChild (x, y);
+		}
+		else
+		{
+			int c_next = next (c);
+			setPrevious (y, c);
+			setNext (y, c_next);
+			setPrevious (c_next, y);
+			setNext (c, y);
+		}
+		setState (x, state (x) + 1);
+	}
+
+	/**
+	 * private void cut (int n, int p) - removes 'n' from the children of 'p' and adds it to the root list.
+	 */
+	private void cut (int n, int p)
+	{
+		int next = next (n);
+		if (next == n)
+		{
+			setChild (p, NIL);
+		}
+		else
+		{
+			int prev = previous (n);
+			setNext (prev, next);
+			setPrevious (next, prev);
+			if (child (p) == n)
+			{
+				setChild (p, next);
+			}
+		}
+		setState (p, state (p) - 1);
+		setParent (n, NIL);
+		setState (n, state (n) & DEGREE);
+		addRoot (n);
+	}
+
+	/**
+	 * private void cascadingCut (int p) - walks up from 'p' cutting marked parents, and marks the
+	 * 		first unmarked non-root it meets.
+	 */
+	private void cascadingCut (int p)
+	{
+		int pp = parent (p);
+		while (pp != NIL)
+		{
+			int s = state (p);
+			if ((s & MARK) == 0)
+			{
+				setState (p, s | MARK);
+				return;
+			}
+			cut (p, pp);
+			p = pp;
+			pp = parent (p);
+		}
+	}
+
+	private void addRoot (int n)
+	{
+		if (top == NIL)
+		{
+			setNext (n, n);
+			setPrevious (n, n);
+			top = n;
+		}
+		else
+		{
+			int top_next = next (top);
+			setPrevious (n, top);
+			setNext (n, top_next);
+			setPrevious (top_next, n);
+			setNext (top, n);
+		}
+		num_roots++;
+	}
+
+	/**
+	 * private int allocate () - takes a handle from the free list, or hands out the next unused handle,
+	 * 		adding a page when the current pages are full.
+	 */
+	private int allocate ()
+	{
+		if (free != NIL)
+		{
+			int h = free;
+			free = next (h);
+			return h;
+		}
+		if (num_handles == Integer.MAX_VALUE)
+		{
+			throw new IllegalStateException ("CompactFibonacciHeap is full");
+		}
+		if (num_handles == capacity ())
+		{
+			addPage ();
+		}
+		return num_handles++;
+	}
+
+	private void release (int h)
+	{
+		setPrevious (h, FREE);
+		setNext (h, free);
+		free = h;
+	}
+
+	private void addPage ()
+	{
+		if (num_pages == key_pages.length)
+		{
+			int pages_new = 2 * num_pages;
+			key_pages = Arrays.copyOf (key_pages, pages_new);
+			parent_pages = Arrays.copyOf (parent_pages, pages_new);
+			child_pages = Arrays.copyOf (child_pages, pages_new);
+			next_pages = Arrays.copyOf (next_pages, pages_new);
+			previous_pages = Arrays.copyOf (previous_pages, pages_new);
+			state_pages = Arrays.copyOf (state_pages, pages_new);
+		}
+		key_pages[num_pages] = new double[PAGE_SIZE];
+		parent_pages[num_pages] = new int[PAGE_SIZE];
+		child_pages[num_pages] = new int[PAGE_SIZE];
+		next_pages[num_pages] = new int[PAGE_SIZE];
+		previous_pages[num_pages] = new int[PAGE_SIZE];
+		state_pages[num_pages] = new byte[PAGE_SIZE];
+		num_pages++;
+	}
+
+	////////////////////////////////////////////////
+	//
+	//	Paged array access
+	//
+	private int parent (int h)
+	{
+		return parent_pages[h >>> PAGE_SHIFT][h & PAGE_MASK];
+	}
+	private void setParent (int h, int v)
+	{
+		parent_pages[h >>> PAGE_SHIFT][h & PAGE_MASK] = v;
+	}
+	private int child (int h)
+	{
+		return child_pages[h >>> PAGE_SHIFT][h & PAGE_MASK];
+	}
+	private void setChild (int h, int v)
+	{
+		child_pages[h >>> PAGE_SHIFT][h & PAGE_MASK] = v;
+	}
+	private int next (int h)
+	{
+		return next_pages[h >>> PAGE_SHIFT][h & PAGE_MASK];
+	}
+	private void setNext (int h, int v)
+	{
+		next_pages[h >>> PAGE_SHIFT][h & PAGE_MASK] = v;
+	}
+	private int previous (int h)
+	{
+		return previous_pages[h >>> PAGE_SHIFT][h & PAGE_MASK];
+	}
+	private void setPrevious (int h, int v)
+	{
+		previous_pages[h >>> PAGE_SHIFT][h & PAGE_MASK] = v;
+	}
+	private int state (int h)
+	{
+		return state_pages[h >>> PAGE_SHIFT][h & PAGE_MASK] & 0xff;
+	}
+	private void setState (int h, int v)
+	{
+		state_pages[h >>> PAGE_SHIFT][h & PAGE_MASK] = (byte) v;
+	}
+}
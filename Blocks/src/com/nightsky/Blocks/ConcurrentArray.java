@@ -0,0 +1,262 @@
+package com.nightsky.Blocks;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * ConcurrentArray<E> - thread-safe counterpart of Array for tables shared between threads. get () is a
+ * plain volatile read and never locks. set (), remove () and compareAndSet () update single slots
+ * with CAS operations, and size () is kept in a LongAdder, so writers to different slots do not
+ * contend on a shared counter.
+ *
+ * The slots live in buckets that double in size: bucket b holds 32 << b slots, except the last one,
+ * which only holds the 32 indices left below 2^31. A set () past the end allocates the missing
+ * buckets and installs them with a CAS; a thread that loses the race uses the winner's bucket.
+ * Buckets are never copied or replaced, so growing never pauses readers or writers of the other
+ * slots.
+ *
+ * As with Array, null is not a value: remove () empties a slot, and get () of an empty slot returns
+ * null. forEach () sees every value that was present for the whole walk; values set or removed
+ * during it may or may not be seen.
+ */
+public class ConcurrentArray<E>
+{
+	private static final int FIRST_SHIFT = 5;				// bucket 0 holds 32 slots
+	private static final int BUCKETS = 32 - FIRST_SHIFT;	// enough for every non-negative int index
+
+	private final AtomicReferenceArray<AtomicReferenceArray<E>> buckets = new AtomicReferenceArray<AtomicReferenceArray<E>> (BUCKETS);
+	private final LongAdder size = new LongAdder ();
+
+	public ConcurrentArray ()
+	{
+	}
+
+	/**
+	 * public ConcurrentArray (int length) - allocates the buckets for indices 0 .. length-1 up front.
+	 *
+	 * @param int length
+	 */
+	public ConcurrentArray (int length)
+	{
+		if (length > 0) bucket (bucketOf (length - 1));
+	}
+
+	/**
+	 * public E get (int index)
+	 *
+	 * @param int index
+	 * @return E value, or null if slot 'index' is empty.
+	 */
+	public E get (int index)
+	{
+		if (index < 0)
+		{
+			return null;
+		}
+		int b = bucketOf (index);
+		AtomicReferenceArray<E> bucket = buckets.get(b);
+		return (bucket == null) ? null : bucket.get(offsetOf (index, b));
+	}
+
+	/**
+	 * public E set (int index, E value) - expanding set, like Array.set ().
+	 *
+	 * @param int index
+	 * @param E value - not null, use remove () to empty a slot
+	 * @return E the previous value, or null if the slot was empty.
+	 */
+	public E set (int index, E value)
+	{
+		checkValue (index, value);
+		int b = bucketOf (index);
+		E previous = bucket (b).getAndSet(offsetOf (index, b), value);
+		if (previous == null) size.increment();
+		return previous;
+	}
+
+	/**
+	 * public E putIfAbsent (int index, E value) - sets 'index' only if it is empty.
+	 *
+	 * @param int index
+	 * @param E value - not null
+	 * @return E the value already in the slot, or null if 'value' was set.
+	 */
+	public E putIfAbsent (int index, E value)
+	{
+		checkValue (index, value);
+		int b = bucketOf (index);
+		AtomicReferenceArray<E> bucket = bucket (b);
+		int offset = offsetOf (index, b);
+		while (true)
+		{
+			E current = bucket.get(offset);
+			if (current != null)
+			{
+				return current;
+			}
+			if (bucket.compareAndSet(offset, null, value))
+			{
+				size.increment();
+				return null;
+			}
+		}
+	}
+
+	/**
+	 * public boolean compareAndSet (int index, E expect, E update) - replaces 'expect' with 'update' if
+	 * 		the slot still holds 'expect' (compared with ==). Either may be null, to fill or empty a slot.
+	 *
+	 * @param int index
+	 * @param E expect
+	 * @param E update
+	 * @return boolean - 'true' if the slot was changed.
+	 */
+	public boolean compareAndSet (int index, E expect, E update)
+	{
+		if (index < 0)
+		{
+			throw new IndexOutOfBoundsException ("index " + index);
+		}
+		int b = bucketOf (index);
+		AtomicReferenceArray<E> bucket = (update == null) ? buckets.get(b) : bucket (b);
+		if (bucket == null)
+		{
+			return expect == null;
+		}
+		if (!bucket.compareAndSet(offsetOf (index, b), expect, update))
+		{
+			return false;
+		}
+		if (expect == null && update != null) size.increment();
+		else if (expect != null && update == null) size.decrement();
+		return true;
+	}
+
+	/**
+	 * public E remove (int index) - empties slot 'index'.
+	 *
+	 * @param int index
+	 * @return E the value that was removed, or null if the slot was empty.
+	 */
+	public E remove (int index)
+	{
+		if (index < 0)
+		{
+			return null;
+		}
+		int b = bucketOf (index);
+		AtomicReferenceArray<E> bucket = buckets.get(b);
+		if (bucket == null)
+		{
+			return null;
+		}
+		E previous = bucket.getAndSet(offsetOf (index, b), null);
+		if (previous != null) size.decrement();
+		return previous;
+	}
+
+	/**
+	 * public int size () - number of values. Exact when no update is in progress, otherwise it may
+	 * 		or may not count the updates that are.
+	 *
+	 * @return int
+	 */
+	public int size ()
+	{
+		return (int) size.sum();
+	}
+
+	/**
+	 * public int length () - number of slots in the allocated buckets, NOT the number of values.
+	 * 		Buckets are allocated in order, so every index below length () has a slot.
+	 *
+	 * @return int
+	 */
+	public int length ()
+	{
+		long length = 0;
+		for (int b = 0; b < BUCKETS && buckets.get(b) != null; b++)
+		{
+			length += bucketLength (b);
+		}
+		return (int) Math.min (length, Integer.MAX_VALUE);
+	}
+
+	/**
+	 * public void forEach (Consumer<? super E> action) - calls 'action' for every value, in index order.
+	 * 		See the class comment for what it sees of concurrent updates.
+	 *
+	 * @param Consumer<? super E> action
+	 */
+	public void forEach (Consumer<? super E> action)
+	{
+		for (int b = 0; b < BUCKETS; b++)
+		{
+			AtomicReferenceArray<E> bucket = buckets.get(b);
+			if (bucket == null)
+			{
+				return;
+			}
+			for (int i = 0, n = bucket.length(); i < n; i++)
+			{
+				E value = bucket.get(i);
+				if (value != null) action.accept(value);
+			}
+		}
+	}
+
+	/**
+	 * private AtomicReferenceArray<E> bucket (int b) - bucket 'b', allocating it and every bucket
+	 * 		before it if needed.
+	 */
+	private AtomicReferenceArray<E> bucket (int b)
+	{
+		AtomicReferenceArray<E> bucket = buckets.get(b);
+		if (bucket != null)
+		{
+			return bucket;
+		}
+		for (int i = 0; i <= b; i++)
+		{
+			if (buckets.get(i) == null)
+			{
+				buckets.compareAndSet(i, null, new AtomicReferenceArray<E> (bucketLength (i)));
+			}
+		}
+		return buckets.get(b);
+	}
+
+	/**
+	 * private static int bucketLength (int b) - 32 << b slots, or for the last bucket the indices left
+	 * 		up to Integer.MAX_VALUE: 1 << 31 slots would overflow and can never be reached.
+	 */
+	private static int bucketLength (int b)
+	{
+		long first = ((long) 1 << (b + FIRST_SHIFT)) - (1 << FIRST_SHIFT);		// first index in bucket b
+		return (int) Math.min ((long) 1 << (b + FIRST_SHIFT), (long) Integer.MAX_VALUE + 1 - first);
+	}
+
+	private static int bucketOf (int index)
+	{
+		long position = (long) index + (1 << FIRST_SHIFT);
+		return 63 - Long.numberOfLeadingZeros(position) - FIRST_SHIFT;
+	}
+
+	private static int offsetOf (int index, int b)
+	{
+		return (int) ((long) index + (1 << FIRST_SHIFT) - ((long) 1 << (b + FIRST_SHIFT)));
+	}
+
+	private static void checkValue (int index, Object value)
+	{
+		if (index < 0)
+		{
+			throw new IndexOutOfBoundsException ("index " + index);
+		}
+		if (value == null)
+		{
+			throw new IllegalArgumentException ("Use remove() to delete items. You are attempting to set index " + index + " to null.");
+		}
+	}
+}
@@ -0,0 +1,275 @@
+package com.nightsky.Blocks;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * ConcurrentFibonacciHeap<E> - thread-safe front for a FibonacciHeap, using flat combining.
+ *
+ * insert () and changeValue () do not touch the heap. Each thread publishes them into its own
+ * single-producer buffer and returns. Whichever thread holds the lock (the 'combiner') drains every
+ * buffer and applies the operations to the heap in one batch. Inserts are lazy root list appends,
+ * so a batch is cheap. The combiner runs when a thread's buffer is half full, when it is full (the
+ * producer then waits for the lock), and at the start of remove (), getTop (), size () and flush ().
+ *
+ * remove () is linearizable: it applies every operation published before it, then removes the top.
+ * Operations from one thread are applied in the order that thread published them. Operations from
+ * different threads may be applied in any order.
+ *
+ * The wrapped heap must not be used directly once it is wrapped. Buffers are kept for the lifetime
+ * of the heap, one for each thread that ever used it.
+ */
+public class ConcurrentFibonacciHeap<E>
+{
+	private static final Object INSERT = new Object ();	// value slot of an insert in a buffer
+
+	private final FibonacciHeap<E> heap;
+	private final ReentrantLock lock = new ReentrantLock ();
+
+	private final int buffer_size;
+	private final ThreadLocal<Buffer<E>> buffers;
+	private final AtomicReference<Buffer<E>> buffer_list = new AtomicReference<Buffer<E>> ();
+
+	/**
+	 * public ConcurrentFibonacciHeap (FibonacciHeap<E> heap) - wraps 'heap' with 256-entry buffers.
+	 *
+	 * @param FibonacciHeap<E> heap
+	 */
+	public ConcurrentFibonacciHeap (FibonacciHeap<E> heap)
+	{
+		this (heap, 256);
+	}
+
+	/**
+	 * public ConcurrentFibonacciHeap (FibonacciHeap<E> heap, int buffer_size)
+	 *
+	 * @param FibonacciHeap<E> heap
+	 * @param int buffer_size - operations a thread can publish before it has to wait for the combiner,
+	 * 		rounded up to a power of two
+	 */
+	public ConcurrentFibonacciHeap (FibonacciHeap<E> heap, int buffer_size)
+	{
+		this.heap = heap;
+		this.buffer_size = Integer.highestOneBit(Math.max (2, buffer_size) * 2 - 1);
+		buffers = new ThreadLocal<Buffer<E>> ()
+		{
+			@Override
+			protected Buffer<E> initialValue ()
+			{
+				return register (new Buffer<E> (ConcurrentFibonacciHeap.this.buffer_size));
+			}
+		};
+	}
+
+	/**
+	 * public HeapNode<E> insert (E value) - publishes an insert. The returned node can be passed to
+	 * 		changeValue () right away, even before the insert has been applied.
+	 *
+	 * @param E value
+	 * @return HeapNode<E> node that will be inserted.
+	 */
+	public HeapNode<E> insert (E value)
+	{
+		HeapNode<E> n = new HeapNode<E> (value);
+		publish (n, INSERT);
+		return n;
+	}
+
+	/**
+	 * public void changeValue (HeapNode<E> n, E newValue) - publishes a value change, which is applied
+	 * 		with FibonacciHeap.changeValue (). Do not read n.getValue () concurrently, it is only
+	 * 		updated by the combiner.
+	 *
+	 * @param HeapNode<E> n
+	 * @param E newValue
+	 */
+	public void changeValue (HeapNode<E> n, E newValue)
+	{
+		publish (n, newValue);
+	}
+
+	/**
+	 * public HeapNode<E> remove () - applies all published operations, then removes and returns the top.
+	 *
+	 * @return HeapNode<E> top, or null if the heap is empty.
+	 */
+	public HeapNode<E> remove ()
+	{
+		lock.lock();
+		try
+		{
+			combine ();
+			return heap.remove();
+		}
+		finally
+		{
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * public HeapNode<E> getTop () - applies all published operations and returns the top, which
+	 * 		other threads may remove at any time.
+	 *
+	 * @return HeapNode<E> top, or null if the heap is empty.
+	 */
+	public HeapNode<E> getTop ()
+	{
+		lock.lock();
+		try
+		{
+			combine ();
+			return heap.getTop();
+		}
+		finally
+		{
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * public int size () - applies all published operations and returns the size of the heap.
+	 *
+	 * @return int - size of the heap.
+	 */
+	public int size ()
+	{
+		lock.lock();
+		try
+		{
+			combine ();
+			return heap.size();
+		}
+		finally
+		{
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * public void flush () - applies all published operations.
+	 */
+	public void flush ()
+	{
+		lock.lock();
+		try
+		{
+			combine ();
+		}
+		finally
+		{
+			lock.unlock();
+		}
+	}
+
+	private void publish (HeapNode<E> n, Object value)
+	{
+		Buffer<E> buffer = buffers.get();
+		while (!buffer.offer(n, value))
+		{
+			flush ();
+		}
+		if (buffer.pending() >= buffer_size / 2 && lock.tryLock())
+		{
+			try
+			{
+				combine ();
+			}
+			finally
+			{
+				lock.unlock();
+			}
+		}
+	}
+
+	/**
+	 * private void combine () - drains every buffer into the heap. Must hold 'lock'.
+	 */
+	@SuppressWarnings("unchecked")
+	private void combine ()
+	{
+		for (Buffer<E> buffer = buffer_list.get(); buffer != null; buffer = buffer.next)
+		{
+			long head = buffer.head.get();
+			long tail = buffer.tail.get();
+			for (; head < tail; head++)
+			{
+				int i = (int) head & buffer.mask;
+				HeapNode<E> n = buffer.nodes[i];
+				Object value = buffer.values[i];
+				buffer.nodes[i] = null;
+				buffer.values[i] = null;
+
+				if (value == INSERT)
+				{
+					heap.insert(n);
+				}
+				// A node that is not linked into the heap was removed already, or its
+				// insert is still in another buffer and will pick up the new value
+				else if (n.getNext() != null)
+				{
+					heap.changeValue(n, (E) value);
+				}
+				else
+				{
+					n.setValue((E) value);
+				}
+			}
+			buffer.head.lazySet(head);
+		}
+	}
+
+	private Buffer<E> register (Buffer<E> buffer)
+	{
+		Buffer<E> first;
+		do
+		{
+			first = buffer_list.get();
+			buffer.next = first;
+		} while (!buffer_list.compareAndSet(first, buffer));
+		return buffer;
+	}
+
+	/**
+	 * Buffer<E> - single-producer, single-consumer ring of published operations. Only the owning
+	 * thread advances 'tail' and only the combiner advances 'head'.
+	 */
+	private static final class Buffer<E>
+	{
+		final HeapNode<E>[] nodes;
+		final Object[] values;
+		final int mask;
+		final AtomicLong head = new AtomicLong ();
+		final AtomicLong tail = new AtomicLong ();
+		Buffer<E> next;
+
+		@SuppressWarnings("unchecked")
+		Buffer (int size)
+		{
+			nodes = (HeapNode<E>[]) new HeapNode<?>[size];
+			values = new Object[size];
+			mask = size - 1;
+		}
+
+		boolean offer (HeapNode<E> n, Object value)
+		{
+			long t = tail.get();
+			if (t - head.get() == nodes.length)
+			{
+				return false;
+			}
+			int i = (int) t & mask;
+			nodes[i] = n;
+			values[i] = value;
+			// a volatile store, not lazySet (): once offer () returns, a remove () on any thread sees it
+			tail.set(t + 1);
+			return true;
+		}
+
+		int pending ()
+		{
+			return (int) (tail.get() - head.get());
+		}
+	}
+}
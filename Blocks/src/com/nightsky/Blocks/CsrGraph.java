@@ -0,0 +1,171 @@
+package com.nightsky.Blocks;
+
+/**
+ * CsrGraph - immutable weighted directed graph in compressed sparse row form, three primitive
+ * arrays and no object per vertex or edge:
+ *
+ * 		offsets[v] .. offsets[v+1]-1	the edges leaving vertex v
+ * 		targets[e], weights[e]			where edge e goes, and its weight
+ *
+ * Vertices are 0 .. numVertices()-1. An undirected graph stores every edge in both directions, see
+ * fromEdges (). Searches over it are run with GraphSearch.
+ */
+public class CsrGraph
+{
+	private final int[] offsets;
+	private final int[] targets;
+	private final double[] weights;
+
+	/**
+	 * public CsrGraph (int[] offsets, int[] targets, double[] weights) - a graph over arrays already in
+	 * 		CSR form. The arrays are used as they are, not copied, and must not be changed afterwards.
+	 *
+	 * @param int[] offsets - numVertices()+1 entries, non-decreasing, from 0 to targets.length
+	 * @param int[] targets
+	 * @param double[] weights - same length as targets
+	 */
+	public CsrGraph (int[] offsets, int[] targets, double[] weights)
+	{
+		if (offsets.length == 0 || offsets[0] != 0 || offsets[offsets.length - 1] != targets.length)
+		{
+			throw new IllegalArgumentException ("offsets must run from 0 to the number of edges");
+		}
+		if (weights.length != targets.length)
+		{
+			throw new IllegalArgumentException ("targets has " + targets.length + " edges, weights has " + weights.length);
+		}
+		int num_vertices = offsets.length - 1;
+		for (int v = 0; v < num_vertices; v++)
+		{
+			if (offsets[v + 1] < offsets[v])
+			{
+				throw new IllegalArgumentException ("offsets decrease at vertex " + v);
+			}
+		}
+		for (int e = 0; e < targets.length; e++)
+		{
+			if (targets[e] < 0 || targets[e] >= num_vertices)
+			{
+				throw new IllegalArgumentException ("edge " + e + " goes to vertex " + targets[e] + ", outside 0.." + (num_vertices - 1));
+			}
+		}
+		this.offsets = offsets;
+		this.targets = targets;
+		this.weights = weights;
+	}
+
+	/**
+	 * public static CsrGraph fromEdges (int num_vertices, int[] sources, int[] targets, double[] weights, boolean undirected) -
+	 * 		builds the CSR arrays from an edge list with a counting sort, O(V + E). The edges of a vertex
+	 * 		keep the order they have in the list.
+	 *
+	 * @param int num_vertices
+	 * @param int[] sources
+	 * @param int[] targets
+	 * @param double[] weights
+	 * @param boolean undirected - 'true' to add every edge in both directions
+	 * @return CsrGraph
+	 */
+	public static CsrGraph fromEdges (int num_vertices, int[] sources, int[] targets, double[] weights, boolean undirected)
+	{
+		if (sources.length != targets.length || sources.length != weights.length)
+		{
+			throw new IllegalArgumentException ("sources, targets and weights must have the same length");
+		}
+		long num_edges = undirected ? 2L * sources.length : sources.length;
+		if (num_edges > Integer.MAX_VALUE - 8)
+		{
+			throw new IllegalArgumentException ("too many edges: " + num_edges);
+		}
+		int[] offsets = new int[num_vertices + 1];
+		for (int i = 0; i < sources.length; i++)
+		{
+			checkVertex (sources[i], num_vertices);
+			checkVertex (targets[i], num_vertices);
+			offsets[sources[i] + 1]++;
+			if (undirected) offsets[targets[i] + 1]++;
+		}
+		for (int v = 0; v < num_vertices; v++)
+		{
+			offsets[v + 1] += offsets[v];
+		}
+
+		int[] fill = new int[num_vertices];
+		System.arraycopy(offsets, 0, fill, 0, num_vertices);
+		int[] csr_targets = new int[(int) num_edges];
+		double[] csr_weights = new double[(int) num_edges];
+		for (int i = 0; i < sources.length; i++)
+		{
+			int e = fill[sources[i]]++;
+			csr_targets[e] = targets[i];
+			csr_weights[e] = weights[i];
+			if (undirected)
+			{
+				e = fill[targets[i]]++;
+				csr_targets[e] = sources[i];
+				csr_weights[e] = weights[i];
+			}
+		}
+		return new CsrGraph (offsets, csr_targets, csr_weights);
+	}
+
+	public int numVertices ()
+	{
+		return offsets.length - 1;
+	}
+
+	public int numEdges ()
+	{
+		return targets.length;
+	}
+
+	/**
+	 * public int firstEdge (int v) - the edges of 'v' are firstEdge (v) .. firstEdge (v+1)-1.
+	 *
+	 * @param int v
+	 * @return int edge
+	 */
+	public int firstEdge (int v)
+	{
+		return offsets[v];
+	}
+
+	public int degree (int v)
+	{
+		return offsets[v + 1] - offsets[v];
+	}
+
+	public int target (int e)
+	{
+		return targets[e];
+	}
+
+	public double weight (int e)
+	{
+		return weights[e];
+	}
+
+	// package-private views for GraphSearch, which walks the arrays directly
+	int[] offsets ()
+	{
+		return offsets;
+	}
+
+	int[] targets ()
+	{
+		return targets;
+	}
+
+	double[] weights ()
+	{
+		return weights;
+	}
+
+	private static void checkVertex (int v, int num_vertices)
+	{
+		if (v < 0 || v >= num_vertices)
+		{
+			throw new IllegalArgumentException ("vertex " + v + " outside 0.." + (num_vertices - 1));
+		}
+	}
+}
@@ -0,0 +1,288 @@
+package com.nightsky.Blocks;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * DaryHeap<E> - implicit d-ary min heap (by 'comparator') with a position index, so that values can
+ * be changed or deleted through their handle.
+ *
+ * The values sit in one array in heap order; the children of position i are d*i+1 .. d*i+d. A second,
+ * parallel array holds the handles, and each handle knows its position. Sifting compares the values
+ * array only, so a sift down reads d neighbouring slots instead of chasing d pointers. With d = 4 the
+ * tree is half as deep as a binary heap and the children of a position usually share a cache line.
+ *
+ * 		insert, decrease	O(log_d n)
+ * 		remove, increase	O(d log_d n)
+ */
+public class DaryHeap<E> implements PriorityHeap<E>
+{
+	private final Comparator<? super E> comparator;
+	private final int d;
+
+	private Object[] values;
+	private DaryHeapNode<E>[] nodes;
+	private int num_nodes;
+
+	/**
+	 * public DaryHeap () - 4-ary heap, values must implement Comparable.
+	 */
+	public DaryHeap ()
+	{
+		this (NaturalOrder.<E>get(), 4);
+	}
+
+	/**
+	 * public DaryHeap (Comparator<? super E> comparator) - 4-ary heap.
+	 *
+	 * @param Comparator<? super E> comparator - the smallest value is at the top
+	 */
+	public DaryHeap (Comparator<? super E> comparator)
+	{
+		this (comparator, 4);
+	}
+
+	/**
+	 * public DaryHeap (Comparator<? super E> comparator, int d)
+	 *
+	 * @param Comparator<? super E> comparator - the smallest value is at the top
+	 * @param int d - number of children per position, at least 2
+	 */
+	@SuppressWarnings("unchecked")
+	public DaryHeap (Comparator<? super E> comparator, int d)
+	{
+		if (d < 2)
+		{
+			throw new IllegalArgumentException ("d must be at least 2: " + d);
+		}
+		this.comparator = comparator;
+		this.d = d;
+		values = new Object[16];
+		nodes = (DaryHeapNode<E>[]) new DaryHeapNode<?>[16];
+	}
+
+	public Comparator<? super E> getComparator ()
+	{
+		return comparator;
+	}
+
+	/**
+	 * public DaryHeapNode<E> insert (E value)
+	 *
+	 * @param E value
+	 * @return DaryHeapNode<E> handle of the value.
+	 */
+	@Override
+	public DaryHeapNode<E> insert (E value)
+	{
+		DaryHeapNode<E> n = new DaryHeapNode<E> (value);
+		insert (n);
+		return n;
+	}
+
+	/**
+	 * public void insert (DaryHeapNode<E> n) - inserts a handle which is not in any heap, e.g. one
+	 * 		that was removed before.
+	 *
+	 * @param DaryHeapNode<E> n
+	 */
+	public void insert (DaryHeapNode<E> n)
+	{
+		if (n.index >= 0)
+		{
+			throw new IllegalArgumentException ("node is already in a heap");
+		}
+		if (num_nodes == values.length)
+		{
+			int length = values.length + (values.length >> 1);
+			values = Arrays.copyOf(values, length);
+			nodes = Arrays.copyOf(nodes, length);
+		}
+		siftUp (num_nodes++, n);
+	}
+
+	/**
+	 * public DaryHeapNode<E> getTop ()
+	 *
+	 * @return DaryHeapNode<E> at the top of the heap, or null.
+	 */
+	@Override
+	public DaryHeapNode<E> getTop ()
+	{
+		return (num_nodes == 0) ? null : nodes[0];
+	}
+
+	/**
+	 * public DaryHeapNode<E> remove () - removes and returns the top of the heap.
+	 *
+	 * @return DaryHeapNode<E> top, or null if the heap is empty.
+	 */
+	@Override
+	public DaryHeapNode<E> remove ()
+	{
+		if (num_nodes == 0)
+		{
+			return null;
+		}
+		DaryHeapNode<E> top = nodes[0];
+		removeAt (0);
+		return top;
+	}
+
+	@Override
+	public void changeValue (HeapHandle<E> handle, E newValue)
+	{
+		changeValue ((DaryHeapNode<E>) handle, newValue);
+	}
+
+	/**
+	 * public void changeValue (DaryHeapNode<E> n, E newValue)
+	 *
+	 * @param DaryHeapNode<E> n - handle which is in this heap
+	 * @param E newValue
+	 */
+	public void changeValue (DaryHeapNode<E> n, E newValue)
+	{
+		int c = comparator.compare(newValue, n.value);
+		n.value = newValue;
+		values[n.index] = newValue;
+		if (c < 0)
+		{
+			siftUp (n.index, n);
+		}
+		else if (c > 0)
+		{
+			siftDown (n.index, n);
+		}
+	}
+
+	@Override
+	public void nodeValueDecreased (HeapHandle<E> handle)
+	{
+		nodeValueDecreased ((DaryHeapNode<E>) handle);
+	}
+
+	/**
+	 * public void nodeValueDecreased (DaryHeapNode<E> n) - readjusts the heap for a handle whose value
+	 * 		(or whatever the comparator looks at) moved towards the top.
+	 *
+	 * @param DaryHeapNode<E> n - handle which is in this heap
+	 */
+	public void nodeValueDecreased (DaryHeapNode<E> n)
+	{
+		siftUp (n.index, n);
+	}
+
+	@Override
+	public DaryHeapNode<E> delete (HeapHandle<E> handle)
+	{
+		return delete ((DaryHeapNode<E>) handle);
+	}
+
+	/**
+	 * public DaryHeapNode<E> delete (DaryHeapNode<E> n) - removes 'n' wherever it is in the heap.
+	 *
+	 * @param DaryHeapNode<E> n - handle which is in this heap
+	 * @return DaryHeapNode<E> n
+	 */
+	public DaryHeapNode<E> delete (DaryHeapNode<E> n)
+	{
+		removeAt (n.index);
+		return n;
+	}
+
+	@Override
+	public int size ()
+	{
+		return num_nodes;
+	}
+
+	/**
+	 * private void removeAt (int i) - moves the last value into the hole at 'i' and sifts it whichever
+	 * 		way it has to go.
+	 */
+	private void removeAt (int i)
+	{
+		nodes[i].index = -1;
+		int last = --num_nodes;
+		DaryHeapNode<E> moved = nodes[last];
+		values[last] = null;
+		nodes[last] = null;
+		if (i == last)
+		{
+			return;
+		}
+		if (i > 0 && less (moved.value, values[(i - 1) / d]))
+		{
+			siftUp (i, moved);
+		}
+		else
+		{
+			siftDown (i, moved);
+		}
+	}
+
+	/**
+	 * private void siftUp (int i, DaryHeapNode<E> n) - places 'n' at 'i' or above, moving the parents
+	 * 		it passes down into the hole.
+	 */
+	private void siftUp (int i, DaryHeapNode<E> n)
+	{
+		E value = n.value;
+		while (i > 0)
+		{
+			int parent = (i - 1) / d;
+			if (!less (value, values[parent]))
+			{
+				break;
+			}
+			values[i] = values[parent];
+			nodes[i] = nodes[parent];
+			nodes[i].index = i;
+			i = parent;
+		}
+		values[i] = value;
+		nodes[i] = n;
+		n.index = i;
+	}
+
+	/**
+	 * private void siftDown (int i, DaryHeapNode<E> n) - places 'n' at 'i' or below, moving the
+	 * 		smallest child up into the hole each time.
+	 */
+	private void siftDown (int i, DaryHeapNode<E> n)
+	{
+		E value = n.value;
+		while (true)
+		{
+			int first = d * i + 1;
+			if (first >= num_nodes)
+			{
+				break;
+			}
+			int end = Math.min (first + d, num_nodes);
+			int best = first;
+			for (int c = first + 1; c < end; c++)
+			{
+				if (less (values[c], values[best])) best = c;
+			}
+			if (!less (values[best], value))
+			{
+				break;
+			}
+			values[i] = values[best];
+			nodes[i] = nodes[best];
+			nodes[i].index = i;
+			i = best;
+		}
+		values[i] = value;
+		nodes[i] = n;
+		n.index = i;
+	}
+
+	@SuppressWarnings("unchecked")
+	private boolean less (Object a, Object b)
+	{
+		return comparator.compare((E) a, (E) b) < 0;
+	}
+}
@@ -0,0 +1,37 @@
+package com.nightsky.Blocks;
+
+/**
+ * DaryHeapNode<E> - handle of a value in a DaryHeap. 'index' is the position of the value in the
+ * heap's arrays, kept up to date on every move, or -1 once the value has left the heap.
+ */
+public final class DaryHeapNode<E> implements HeapHandle<E>
+{
+	E value;
+	int index = -1;
+
+	/**
+	 * public DaryHeapNode (E value)
+	 *
+	 * @param E value
+	 */
+	public DaryHeapNode (E value)
+	{
+		this.value = value;
+	}
+
+	@Override
+	public E getValue ()
+	{
+		return value;
+	}
+
+	/**
+	 * public boolean isInHeap () - 'false' once the value was removed or deleted.
+	 *
+	 * @return boolean
+	 */
+	public boolean isInHeap ()
+	{
+		return index >= 0;
+	}
+}
@@ -0,0 +1,482 @@
+package com.nightsky.Blocks;
+
+import java.util.Comparator;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * DeadlineScheduler - runs tasks after a delay, for large numbers of timeouts that are mostly
+ * cancelled or moved before they fire.
+ *
+ * Deadlines are rounded up to the scheduler's resolution (1 ms unless given), and all the tasks with
+ * the same rounded deadline share one bucket: a DoubleLinkedList of Timeouts hanging off a single
+ * node of a MinFibonacciHeap ordered by deadline. So the heap holds one node per distinct deadline,
+ * not per task, and
+ *
+ * 		schedule ()		O(1): add to the bucket, inserting the bucket if it is new
+ * 		cancel ()		O(1) unlink from the bucket; a bucket left empty is deleted from the heap
+ * 						(a real delete, amortized O(log buckets)), so cancelled tasks hold no memory
+ * 		reschedule ()	moves the task between buckets; a task alone in its bucket moving to an unused
+ * 						deadline takes its bucket along, through decrease-key when it moves earlier
+ *
+ * One dispatcher thread waits for the earliest deadline and hands each task of a due bucket to the
+ * Executor. On Java 21 and later, Executors.newVirtualThreadPerTaskExecutor () runs every task on
+ * its own virtual thread; a direct executor (Runnable::run) runs them on the dispatcher itself, for
+ * tasks that only flag or enqueue something.
+ *
+ * Every operation takes one lock, held only for the heap and list updates; tasks run outside it.
+ */
+public class DeadlineScheduler
+{
+	/**
+	 * Bucket - the timeouts with one rounded deadline, and their node in the heap.
+	 */
+	static final class Bucket
+	{
+		long tick;										// deadline, in resolution units since 'origin'
+		final DoubleLinkedList<Timeout> timeouts = new DoubleLinkedList<Timeout> ();
+		HeapNode<Bucket> node;
+	}
+
+	private static final Comparator<Bucket> DEADLINE_ORDER = new Comparator<Bucket> ()
+	{
+		@Override
+		public int compare (Bucket b1, Bucket b2)
+		{
+			return Long.compare(b1.tick, b2.tick);
+		}
+	};
+
+	private static final long MAX_DELAY = Long.MAX_VALUE >> 1;		// ns
+
+	private final Executor executor;
+	private final long resolution;						// ns per tick
+	private final long origin = System.nanoTime();
+
+	private final ReentrantLock lock = new ReentrantLock ();
+	private final Condition earlier = lock.newCondition();		// signalled when the earliest deadline moves up
+	private final MinFibonacciHeap<Bucket> buckets = new MinFibonacciHeap<Bucket> (DEADLINE_ORDER);
+	// open-addressing table from tick to bucket, as in IndexedFibonacciHeap, so lookups box nothing
+	private long[] table_ticks = new long[64];
+	private Bucket[] table_buckets = new Bucket[64];		// null for an empty slot
+	private int table_mask = 63;
+	private int table_shift = 58;
+	private int pending;
+	private boolean shutdown;
+
+	private final Thread dispatcher;
+
+	/**
+	 * public DeadlineScheduler (Executor executor) - 1 ms resolution.
+	 *
+	 * @param Executor executor - runs the tasks
+	 */
+	public DeadlineScheduler (Executor executor)
+	{
+		this (executor, 1, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * public DeadlineScheduler (Executor executor, long resolution, TimeUnit unit) - starts the
+	 * 		dispatcher thread (a daemon).
+	 *
+	 * @param Executor executor - runs the tasks
+	 * @param long resolution - deadlines are rounded up to a multiple of this, which is what lets
+	 * 			timeouts share a bucket; a task never runs early, but may run up to this much late
+	 * @param TimeUnit unit
+	 */
+	public DeadlineScheduler (Executor executor, long resolution, TimeUnit unit)
+	{
+		if (resolution <= 0)
+		{
+			throw new IllegalArgumentException ("resolution must be positive: " + resolution);
+		}
+		this.executor = executor;
+		this.resolution = unit.toNanos(resolution);
+		dispatcher = new Thread (new Runnable ()
+		{
+			@Override
+			public void run ()
+			{
+				dispatch ();
+			}
+		}, "DeadlineScheduler");
+		dispatcher.setDaemon(true);
+		dispatcher.start();
+	}
+
+	/**
+	 * public Timeout schedule (Runnable task, long delay, TimeUnit unit) - runs 'task' once 'delay' has
+	 * 		passed.
+	 *
+	 * @param Runnable task
+	 * @param long delay
+	 * @param TimeUnit unit
+	 * @return Timeout - to cancel or reschedule the task
+	 * @throws IllegalStateException if the scheduler was shut down
+	 */
+	public Timeout schedule (Runnable task, long delay, TimeUnit unit)
+	{
+		if (task == null)
+		{
+			throw new IllegalArgumentException ("task is null");
+		}
+		Timeout timeout = new Timeout (this, task);
+		long tick = tickOf (delay, unit);
+		lock.lock();
+		try
+		{
+			if (shutdown)
+			{
+				throw new IllegalStateException ("scheduler is shut down");
+			}
+			add (timeout, tick);
+			pending++;
+		}
+		finally
+		{
+			lock.unlock();
+		}
+		return timeout;
+	}
+
+	/**
+	 * public boolean cancel (Timeout timeout) - keeps the task from running, if it has not been handed
+	 * 		to the executor yet.
+	 *
+	 * @param Timeout timeout
+	 * @return boolean - 'true' if the task will not run, 'false' if it has fired already.
+	 */
+	public boolean cancel (Timeout timeout)
+	{
+		lock.lock();
+		try
+		{
+			if (timeout.state != Timeout.PENDING)
+			{
+				return timeout.state == Timeout.CANCELLED;
+			}
+			unlink (timeout);
+			timeout.state = Timeout.CANCELLED;
+			pending--;
+			return true;
+		}
+		finally
+		{
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * public boolean reschedule (Timeout timeout, long delay, TimeUnit unit) - moves the deadline of a
+	 * 		pending timeout to 'delay' from now, earlier or later.
+	 *
+	 * @param Timeout timeout
+	 * @param long delay
+	 * @param TimeUnit unit
+	 * @return boolean - 'true' if the timeout was pending, 'false' if it fired or was cancelled.
+	 */
+	public boolean reschedule (Timeout timeout, long delay, TimeUnit unit)
+	{
+		long tick = tickOf (delay, unit);
+		lock.lock();
+		try
+		{
+			if (timeout.state != Timeout.PENDING)
+			{
+				return false;
+			}
+			Bucket bucket = timeout.bucket;
+			if (bucket.tick == tick)
+			{
+				return true;
+			}
+			if (bucket.timeouts.size() == 1 && table_buckets[find (tick)] == null)
+			{
+				// Move the whole bucket: decrease-key when it gets earlier, delete and re-insert its
+				// node when it gets later
+				vacate (find (bucket.tick));
+				if (tick < bucket.tick)
+				{
+					bucket.tick = tick;
+					buckets.nodeValueDecreased(bucket.node);
+					if (buckets.getTop() == bucket.node) earlier.signal();
+				}
+				else
+				{
+					buckets.delete(bucket.node);
+					bucket.tick = tick;
+					buckets.insert(bucket.node);
+				}
+				put (bucket);
+				return true;
+			}
+			unlink (timeout);
+			add (timeout, tick);
+			return true;
+		}
+		finally
+		{
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * public int pending () - number of tasks waiting for their deadline.
+	 *
+	 * @return int
+	 */
+	public int pending ()
+	{
+		lock.lock();
+		try
+		{
+			return pending;
+		}
+		finally
+		{
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * public int buckets () - number of distinct deadlines in the heap.
+	 *
+	 * @return int
+	 */
+	public int buckets ()
+	{
+		lock.lock();
+		try
+		{
+			return buckets.size();
+		}
+		finally
+		{
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * public void shutdown () - stops the dispatcher. Pending tasks are dropped, they are neither run
+	 * 		nor marked cancelled. The executor is not shut down.
+	 */
+	public void shutdown ()
+	{
+		lock.lock();
+		try
+		{
+			shutdown = true;
+			earlier.signal();
+		}
+		finally
+		{
+			lock.unlock();
+		}
+	}
+
+	int stateOf (Timeout timeout)
+	{
+		lock.lock();
+		try
+		{
+			return timeout.state;
+		}
+		finally
+		{
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * private void dispatch () - the dispatcher thread: waits for the earliest bucket to be due, takes
+	 * 		it out of the heap and hands its tasks to the executor.
+	 */
+	private void dispatch ()
+	{
+		while (true)
+		{
+			Bucket due;
+			lock.lock();
+			try
+			{
+				while (true)
+				{
+					if (shutdown)
+					{
+						return;
+					}
+					HeapNode<Bucket> top = buckets.getTop();
+					if (top == null)
+					{
+						earlier.awaitUninterruptibly();
+						continue;
+					}
+					long wait = nanosOf (top.getValue().tick) - (System.nanoTime() - origin);
+					if (wait > 0)
+					{
+						earlier.awaitNanos(wait);
+						continue;
+					}
+					buckets.remove();
+					due = top.getValue();
+					vacate (find (due.tick));
+					Timeout t = due.timeouts.getPointer();
+					for (int i = due.timeouts.size(); i > 0; i--)
+					{
+						t.state = Timeout.FIRED;
+						t.bucket = null;
+						t = t.getNext();
+					}
+					pending -= due.timeouts.size();
+					break;
+				}
+			}
+			catch (InterruptedException e)
+			{
+				return;
+			}
+			finally
+			{
+				lock.unlock();
+			}
+
+			// The timeouts of 'due' are FIRED, nothing else touches their links any more
+			Timeout t = due.timeouts.getPointer();
+			for (int i = due.timeouts.size(); i > 0; i--)
+			{
+				try
+				{
+					executor.execute(t.getValue());
+				}
+				catch (RuntimeException e)
+				{
+					Thread.currentThread().getUncaughtExceptionHandler().uncaughtException(Thread.currentThread(), e);
+				}
+				t = t.getNext();
+			}
+		}
+	}
+
+	/**
+	 * private void add (Timeout timeout, long tick) - puts 'timeout' in the bucket of 'tick', creating
+	 * 		the bucket if needed. Called with the lock held.
+	 */
+	private void add (Timeout timeout, long tick)
+	{
+		Bucket bucket = table_buckets[find (tick)];
+		if (bucket == null)
+		{
+			bucket = new Bucket ();
+			bucket.tick = tick;
+			put (bucket);
+			bucket.node = buckets.insert(bucket);
+			if (buckets.getTop() == bucket.node) earlier.signal();
+		}
+		bucket.timeouts.add(timeout);
+		timeout.bucket = bucket;
+	}
+
+	/**
+	 * private void unlink (Timeout timeout) - takes 'timeout' out of its bucket, deleting the bucket
+	 * 		from the heap if it is left empty. Called with the lock held.
+	 */
+	private void unlink (Timeout timeout)
+	{
+		Bucket bucket = timeout.bucket;
+		bucket.timeouts.remove(timeout);
+		timeout.bucket = null;
+		if (bucket.timeouts.size() == 0)
+		{
+			buckets.delete(bucket.node);
+			vacate (find (bucket.tick));
+		}
+	}
+
+	////////////////////////////////////////////////
+	//
+	//	tick table
+	//
+	/**
+	 * private int find (long tick) - slot holding the bucket of 'tick', or the empty slot where it
+	 * 		would go.
+	 */
+	private int find (long tick)
+	{
+		int slot = (int) ((tick * 0x9E3779B97F4A7C15L) >>> table_shift);
+		while (table_buckets[slot] != null && table_ticks[slot] != tick)
+		{
+			slot = (slot + 1) & table_mask;
+		}
+		return slot;
+	}
+
+	private void put (Bucket bucket)
+	{
+		int slot = find (bucket.tick);
+		table_ticks[slot] = bucket.tick;
+		table_buckets[slot] = bucket;
+		if (buckets.size() > (table_mask + 1) >>> 1)
+		{
+			long[] ticks_old = table_ticks;
+			Bucket[] buckets_old = table_buckets;
+			table_ticks = new long[ticks_old.length * 2];
+			table_buckets = new Bucket[buckets_old.length * 2];
+			table_mask = table_ticks.length - 1;
+			table_shift--;
+			for (int i = 0; i < buckets_old.length; i++)
+			{
+				if (buckets_old[i] != null)
+				{
+					int s = find (ticks_old[i]);
+					table_ticks[s] = ticks_old[i];
+					table_buckets[s] = buckets_old[i];
+				}
+			}
+		}
+	}
+
+	/**
+	 * private void vacate (int slot) - backward-shift delete, see IndexedFibonacciHeap.vacate ().
+	 */
+	private void vacate (int slot)
+	{
+		int gap = slot;
+		int next = (gap + 1) & table_mask;
+		while (table_buckets[next] != null)
+		{
+			int home = (int) ((table_ticks[next] * 0x9E3779B97F4A7C15L) >>> table_shift);
+			if (((next - home) & table_mask) >= ((next - gap) & table_mask))
+			{
+				table_ticks[gap] = table_ticks[next];
+				table_buckets[gap] = table_buckets[next];
+				gap = next;
+			}
+			next = (next + 1) & table_mask;
+		}
+		table_buckets[gap] = null;
+	}
+
+	/**
+	 * private long tickOf (long delay, TimeUnit unit) - deadline 'delay' from now, rounded up to the
+	 * 		next tick. As in ScheduledThreadPoolExecutor.triggerTime (), delays are capped at
+	 * 		Long.MAX_VALUE >> 1 ns (146 years), so that adding the time since 'origin' cannot overflow
+	 * 		and a huge delay stays in the future instead of wrapping to a deadline that is already due.
+	 */
+	private long tickOf (long delay, TimeUnit unit)
+	{
+		long due = System.nanoTime() - origin + Math.min (Math.max (unit.toNanos(delay), 0), MAX_DELAY);
+		return due / resolution + ((due % resolution == 0) ? 0 : 1);
+	}
+
+	/**
+	 * private long nanosOf (long tick) - deadline of 'tick' in ns since 'origin', Long.MAX_VALUE if it
+	 * 		is further away than that (only with a resolution of many years).
+	 */
+	private long nanosOf (long tick)
+	{
+		return (tick > Long.MAX_VALUE / resolution) ? Long.MAX_VALUE : tick * resolution;
+	}
+}
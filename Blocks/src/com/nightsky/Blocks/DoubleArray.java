@@ -0,0 +1,157 @@
+package com.nightsky.Blocks;
+
+import java.util.Arrays;
+
+/**
+ * DoubleArray - Array for double values, stored unboxed in a double[]. Behaves like Array: set () expands the
+ * array, remove () leaves a hole, size () counts the values and length () the slots. Which slots hold
+ * a value is tracked in a bitmap, since every double is a valid value; get () of an empty slot
+ * returns 0. The begin/hasNext/next cursor only visits slots that hold a value; nextDouble () is the
+ * unboxed version of next ().
+ */
+public class DoubleArray implements Iterate<Double>
+{
+	private double[] a;
+	private long[] bits;
+	private int length;
+	private int size;
+
+	public DoubleArray (int length)
+	{
+		this.length = length;
+		a = new double[length];
+		bits = new long[Bits.words(length)];
+		size = 0;
+	}
+
+	public DoubleArray ()
+	{
+		this (1);
+	}
+
+	/**
+	 * public double get (int index)
+	 *
+	 * @param int index
+	 * @return double value, 0 if there is none.
+	 */
+	public double get (int index)
+	{
+		if (index > length-1)
+		{
+			return 0;
+		}
+		return a[index];
+	}
+
+	/**
+	 * public boolean contains (int index) - 'true' if slot 'index' holds a value.
+	 *
+	 * @param int index
+	 * @return boolean
+	 */
+	public boolean contains (int index)
+	{
+		return index < length && Bits.get(bits, index);
+	}
+
+	/**
+	 * public double set (int index, double value) - this is an expanding 'set'. If the index doesn't exist,
+	 * the array will be enlarged to about 1.5 * the index (an O(n) operation) in order to
+	 * accommodate the set request.
+	 *
+	 * @param int index
+	 * @param double value
+	 */
+	public double set (int index, double value)
+	{
+		if (index > length-1)
+		{
+			int length_new = (int)((index + 1) + (0.5 * index));
+			a = Arrays.copyOf(a, length_new);
+			bits = Bits.grow(bits, length_new);
+			length = length_new;
+		}
+		if (Bits.set(bits, index))
+		{
+			size++;
+		}
+		a[index] = value;
+		return value;
+	}
+
+	/**
+	 * public void remove (int index) - empties slot 'index'. Nothing happens if it is empty already.
+	 *
+	 * @param int index
+	 */
+	public void remove (int index)
+	{
+		if (index < length && Bits.clear(bits, index))
+		{
+			a[index] = 0;
+			size--;
+		}
+	}
+
+	////////////////////////////////////////////////
+	//
+	//	Iterator-less iterations
+	//
+	private int pointer = -1;
+	@Override
+	public void begin ()
+	{
+		pointer = Bits.nextSetBit(bits, 0);
+	}
+	@Override
+	public boolean hasNext ()
+	{
+		return pointer >= 0;
+	}
+	/**
+	 * public double nextDouble () - next value of the cursor, without boxing it.
+	 *
+	 * @return double
+	 */
+	public double nextDouble ()
+	{
+		double value = a[pointer];
+		pointer = Bits.nextSetBit(bits, pointer + 1);
+		return value;
+	}
+	@Override
+	public Double next ()
+	{
+		return nextDouble ();
+	}
+
+	/**
+	 * public int length () - !!! Note: this returns the current length of the array, NOT the number of items this array contains!!!
+	 *
+	 * @return int - length of this array.
+	 */
+	public int length ()
+	{
+		return length;
+	}
+
+	/**
+	 * public int size () - !!! Note: this returns the number of items contained in this array, NOT the length of the array!!!
+	 *
+	 * @return int - number of items contained in the array.
+	 */
+	@Override
+	public int size ()
+	{
+		return size;
+	}
+
+	@Override
+	public void clear ()
+	{
+		Arrays.fill(a, 0.0);
+		Arrays.fill(bits, 0L);
+		size = 0;
+	}
+}
@@ -0,0 +1,98 @@
+package com.nightsky.Blocks;
+
+/**
+ * DoubleKeyHeapNode<E> - node used by DoubleKeyFibonacciHeap. The priority is stored inline as a
+ * primitive double and the value is an optional payload. Children hang off an intrusive first-child
+ * pointer and share the next/previous links, so the node is the only allocation per entry.
+ */
+public final class DoubleKeyHeapNode<E> implements Node<E>
+{
+	double key;
+	private E value;
+
+	DoubleKeyHeapNode<E> previous;
+	DoubleKeyHeapNode<E> next;
+
+	DoubleKeyHeapNode<E> parent;
+	DoubleKeyHeapNode<E> child;		// any one of the children, they form a circular list
+	int degree;						// number of children
+
+	boolean marked;
+
+	/**
+	 * public DoubleKeyHeapNode (double key, E val)
+	 *
+	 * @param double key - priority of this node
+	 * @param E val - payload, may be null
+	 */
+	public DoubleKeyHeapNode (double key, E val)
+	{
+		this.key = key;
+		this.value = val;
+	}
+
+	public double getKey ()
+	{
+		return key;
+	}
+
+	public int getDegree ()
+	{
+		return degree;
+	}
+
+	public boolean isMarked ()
+	{
+		return marked;
+	}
+
+	public DoubleKeyHeapNode<E> getChild ()
+	{
+		return child;
+	}
+
+	@Override
+	public E getValue() {
+		return value;
+	}
+
+	@Override
+	public void setValue(E val) {
+		this.value = val;
+	}
+
+	@Override
+	public DoubleKeyHeapNode<E> getNext() {
+		return next;
+	}
+
+	@Override
+	public void setNext(Node<E> n) {
+		this.next = (DoubleKeyHeapNode<E>)n;
+	}
+
+	@Override
+	public DoubleKeyHeapNode<E> getPrevious() {
+		return previous;
+	}
+
+	@Override
+	public void setPrevious(Node<E> n) {
+		this.previous = (DoubleKeyHeapNode<E>)n;
+	}
+
+	@Override
+	public DoubleKeyHeapNode<E> getParent() {
+		return parent;
+	}
+
+	@Override
+	public void setParent(Node<E> n) {
+		this.parent = (DoubleKeyHeapNode<E>)n;
+	}
+
+	@Override
+	public DoubleKeyHeapNode<E> copy() {
+		return new DoubleKeyHeapNode<E> (key, value);
+	}
+}
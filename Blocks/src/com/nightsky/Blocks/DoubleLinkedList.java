@@ -1,11 +1,18 @@
 package com.nightsky.Blocks;
+import java.util.Comparator;
 import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 public class DoubleLinkedList<N extends Node> implements Iterable<N>, Iterate<N>
 {
 	private int size = 0;
 	private N p;
 	private N recycle_pool = null;
+	private int recycled = 0;		// number of nodes in recycle_pool
 
 	
 	public DoubleLinkedList () 
@@ -91,38 +98,64 @@ public class DoubleLinkedList<N extends Node> implements Iterable<N>, Iterate<N>
 	}
 	
 	/**
-	 * public void concat (DoubleLinkedList<N> list) - Concatenates 'list' to this linked list. The passed
-	 * list is added after this list's tail.
+	 * public void concat (DoubleLinkedList<N> list) - O(1) operation. Concatenates 'list' to this linked list.
+	 * The passed list is added after this list's tail. The nodes now belong to this list, so 'list' is left empty.
 	 * 
 	 * @param DoubleLinkedList<N> list
 	 */
 	public void concat (DoubleLinkedList<N> list)
 	{
-		N p_end = (N) p.getNext();
-		N n = (N) list.getPointer();
-		N n_end = (N) n.getNext();
-		
-		p.setNext(n_end);
-		n_end.setPrevious(p);
-		n.setNext(p_end);
-		p_end.setPrevious(n);
-		
+		if (list.size() == 0) return;
+		if (size == 0)
+		{
+			p = list.getPointer();
+		}
+		else
+		{
+			N p_end = (N) p.getPrevious();
+			N n = list.getPointer();
+			N n_end = (N) n.getPrevious();
+			
+			p_end.setNext(n);
+			n.setPrevious(p_end);
+			n_end.setNext(p);
+			p.setPrevious(n_end);
+		}
 		size += list.size();
+		list.reset();
 	}
 	
 	/**
 	 * public void concatAt (N n, DoubleLinkedList<N> list) - will concatenate the linked list 'list'
-	 * right after node 'n'
+	 * right after node 'n'. The nodes now belong to this list, so 'list' is left empty.
 	 * 
 	 * @param N n
 	 * @param DoubleLinkedList<N> list
 	 */
 	public void concatAt (N n, DoubleLinkedList<N> list)
 	{
+		if (list.size() == 0) return;
+		concatAt (n, list.getPointer(), list.size());
+		list.reset();
+	}
+	
+	/**
+	 * public void concatAt (N n, N ring, int count) - O(1) operation. Like concatAt (N n, DoubleLinkedList<N> list),
+	 * for nodes that are linked into a circular list of their own but not held by a DoubleLinkedList
+	 * (e.g. the children of a HeapNode). 'ring' is placed right after 'n' and the rest follow in order.
+	 * 
+	 * @param N n
+	 * @param N ring - any node of the circular list
+	 * @param int count - number of nodes in the circular list
+	 */
+	@SuppressWarnings("unchecked")
+	public void concatAt (N n, N ring, int count)
+	{
+		if (ring == null) return;
 		N n_next = (N) n.getNext();
 		
-		N p_ = (N) list.getPointer();
-		N p_next = (N) list.getPointer().getNext();
+		N p_ = (N) ring.getPrevious();
+		N p_next = ring;
 		
 		n.setNext(p_next);
 		p_next.setPrevious(n);
@@ -130,7 +163,200 @@ public class DoubleLinkedList<N extends Node> implements Iterable<N>, Iterate<N>
 		p_.setNext(n_next);
 		n_next.setPrevious(p_);
 		
-		size += list.size();
+		size += count;
+	}
+	
+	/**
+	 * public void spliceRange (N from, N to, DoubleLinkedList<N> target, N after) - O(k) operation for k
+	 * moved nodes. Moves the run of nodes from 'from' to 'to' (both included, following getNext ()) out of
+	 * this list and into 'target' right after 'after', keeping their order. 'after' == null appends them
+	 * at the tail of 'target'. 'target' may be this list, as long as 'after' is not in the run.
+	 * 
+	 * @param N from - first node of the run
+	 * @param N to - last node of the run
+	 * @param DoubleLinkedList<N> target
+	 * @param N after - node of 'target', or null
+	 */
+	@SuppressWarnings("unchecked")
+	public void spliceRange (N from, N to, DoubleLinkedList<N> target, N after)
+	{
+		// Count the run, it decides the sizes and whether the head moves with it
+		int count = 1;
+		boolean moves_head = (from == p);
+		for (N n = from; n != to; count++)
+		{
+			if (n == after)
+			{
+				throw new IllegalArgumentException ("'after' is inside the range");
+			}
+			n = (N) n.getNext();
+			if (n == p) moves_head = true;
+			if (n == from)
+			{
+				throw new IllegalArgumentException ("'to' does not follow 'from'");
+			}
+		}
+		if (to == after)
+		{
+			throw new IllegalArgumentException ("'after' is inside the range");
+		}
+		
+		// Unlink the run
+		if (count == size)
+		{
+			p = null;
+		}
+		else
+		{
+			N before = (N) from.getPrevious();
+			N beyond = (N) to.getNext();
+			before.setNext(beyond);
+			beyond.setPrevious(before);
+			if (moves_head) p = beyond;
+		}
+		size -= count;
+		
+		// Link it into 'target'
+		if (target.size == 0)
+		{
+			target.p = from;
+			from.setPrevious(to);
+			to.setNext(from);
+		}
+		else
+		{
+			N left = (after == null) ? (N) target.p.getPrevious() : after;
+			N right = (N) left.getNext();
+			left.setNext(from);
+			from.setPrevious(left);
+			to.setNext(right);
+			right.setPrevious(to);
+		}
+		target.size += count;
+	}
+	
+	/**
+	 * public DoubleLinkedList<N> split (N at) - O(k) operation for k moved nodes. Cuts this list before
+	 * 'at': this list keeps the nodes from the head up to 'at', and the nodes from 'at' to the tail are
+	 * returned as a new list with 'at' as its head.
+	 * 
+	 * @param N at - node of this list
+	 * @return DoubleLinkedList<N> the second part.
+	 */
+	@SuppressWarnings("unchecked")
+	public DoubleLinkedList<N> split (N at)
+	{
+		DoubleLinkedList<N> rest = new DoubleLinkedList<N> ();
+		if (size == 0)
+		{
+			return rest;
+		}
+		spliceRange (at, (N) p.getPrevious(), rest, null);
+		return rest;
+	}
+	
+	/**
+	 * public boolean removeIf (Predicate<? super N> filter) - O(n) operation. Removes every node for which
+	 * 'filter' returns true, in one pass over the list.
+	 * 
+	 * @param Predicate<? super N> filter
+	 * @return boolean - 'true' if any node was removed.
+	 */
+	@SuppressWarnings("unchecked")
+	public boolean removeIf (Predicate<? super N> filter)
+	{
+		int before = size;
+		N n = p;
+		for (int i = before; i > 0; i--)
+		{
+			N next = (N) n.getNext();
+			if (filter.test(n)) remove (n);
+			n = next;
+		}
+		return size != before;
+	}
+	
+	/**
+	 * public void sort (Comparator<? super N> comparator) - O(n log n) operation. Stable bottom-up merge
+	 * sort done on the links themselves: runs of 1, 2, 4, ... nodes are merged pass by pass until a
+	 * single run is left. The nodes are not copied and no array is used.
+	 * 
+	 * @param Comparator<? super N> comparator
+	 */
+	@SuppressWarnings("unchecked")
+	public void sort (Comparator<? super N> comparator)
+	{
+		if (size < 2)
+		{
+			return;
+		}
+		
+		// Work on a null-terminated list, 'previous' is rebuilt as nodes are merged
+		N list = p;
+		((N) p.getPrevious()).setNext(null);
+		
+		for (int run = 1; ; run <<= 1)
+		{
+			N left = list;
+			N tail = null;
+			list = null;
+			int merges = 0;
+			while (left != null)
+			{
+				merges++;
+				
+				// 'left' starts a run of up to 'run' nodes, 'right' the run after it
+				N right = left;
+				int left_size = 0;
+				while (left_size < run && right != null)
+				{
+					left_size++;
+					right = (N) right.getNext();
+				}
+				int right_size = run;
+				
+				while (left_size > 0 || (right_size > 0 && right != null))
+				{
+					N n;
+					if (left_size == 0 || (right_size > 0 && right != null && comparator.compare(right, left) < 0))
+					{
+						n = right;
+						right = (N) right.getNext();
+						right_size--;
+					}
+					else
+					{
+						n = left;
+						left = (N) left.getNext();
+						left_size--;
+					}
+					if (tail == null) list = n;
+					else tail.setNext(n);
+					n.setPrevious(tail);
+					tail = n;
+				}
+				left = right;
+			}
+			tail.setNext(null);
+			
+			if (merges == 1)
+			{
+				tail.setNext(list);
+				list.setPrevious(tail);
+				p = list;
+				return;
+			}
+		}
+	}
+	
+	/**
+	 * private void reset () - forgets all nodes without touching them. Unlike clear (), the nodes are not
+	 * moved to the recycle pool, because they have been handed to another list.
+	 */
+	private void reset ()
+	{
+		p = null;
+		size = 0;
 	}
 	
 	
@@ -212,10 +438,37 @@ public class DoubleLinkedList<N extends Node> implements Iterable<N>, Iterate<N>
     		p.setNext(rec_end);
     		rec_end.setPrevious(p);
     	}
+        recycled += size;
         p = null;   
         size = 0;
     }
     
+    /**
+     * public void recycle (N n) - puts 'n', which must not be in any list, into the recycle pool so that
+     * getRecycledNode () can hand it out again.
+     * 
+     * @param N n
+     */
+    @SuppressWarnings("unchecked")
+    public void recycle (N n)
+    {
+    	if (recycle_pool == null)
+    	{
+    		recycle_pool = n;
+    		n.setNext(n);
+    		n.setPrevious(n);
+    	}
+    	else
+    	{
+    		N rec_next = (N) recycle_pool.getNext();
+    		recycle_pool.setNext(n);
+    		n.setPrevious(recycle_pool);
+    		n.setNext(rec_next);
+    		rec_next.setPrevious(n);
+    	}
+    	recycled++;
+    }
+    
     public N getRecycledNode ()
     {
     	if (recycle_pool == null)
@@ -224,10 +477,14 @@ public class DoubleLinkedList<N extends Node> implements Iterable<N>, Iterate<N>
     	}
     	else
     	{
+    		recycled--;
     		if (recycle_pool.getNext() == recycle_pool)
     		{
     			N n = recycle_pool;
     			recycle_pool = null;
+    			n.setNext(null);
+    			n.setPrevious(null);
+    			n.setParent(null);
     			return n;
     		}
     		N n = (N) recycle_pool.getNext();
@@ -247,6 +504,16 @@ public class DoubleLinkedList<N extends Node> implements Iterable<N>, Iterate<N>
     {
     	return recycle_pool != null;
     }
+    
+    /**
+     * public int recycledNodes () - number of nodes waiting in the recycle pool.
+     * 
+     * @return int
+     */
+    public int recycledNodes ()
+    {
+    	return recycled;
+    }
 
 	@Override
 	public Iterator<N> iterator() {
@@ -294,4 +561,131 @@ public class DoubleLinkedList<N extends Node> implements Iterable<N>, Iterate<N>
 		};
 		return it;
 	}
-}
\ No newline at end of file
+	
+	/**
+	 * public void forEach (Consumer<? super N> action) - calls 'action' for every node from the head,
+	 * without creating an iterator. 'action' may remove the node it is given, but nothing else.
+	 * 
+	 * @param Consumer<? super N> action
+	 */
+	@Override
+	@SuppressWarnings("unchecked")
+	public void forEach (Consumer<? super N> action)
+	{
+		N n = p;
+		for (int i = size; i > 0; i--)
+		{
+			N next = (N) n.getNext();
+			action.accept(n);
+			n = next;
+		}
+	}
+	
+	/**
+	 * public Spliterator<N> spliterator () - walks the circular list from the head for size () nodes.
+	 * trySplit () walks half of the remaining nodes to find where the second half starts, so both
+	 * halves know their exact size. The list must not be modified while the spliterator is in use.
+	 * 
+	 * @return Spliterator<N>
+	 */
+	@Override
+	public Spliterator<N> spliterator ()
+	{
+		return new ListSpliterator<N> (p, size);
+	}
+	
+	/**
+	 * public Stream<N> stream () - sequential stream of the nodes.
+	 * 
+	 * @return Stream<N>
+	 */
+	public Stream<N> stream ()
+	{
+		return StreamSupport.stream(spliterator (), false);
+	}
+	
+	/**
+	 * public Stream<N> parallelStream () - parallel stream of the nodes.
+	 * 
+	 * @return Stream<N>
+	 */
+	public Stream<N> parallelStream ()
+	{
+		return StreamSupport.stream(spliterator (), true);
+	}
+	
+	/**
+	 * ListSpliterator<N> - 'remaining' nodes starting at 'current'.
+	 */
+	@SuppressWarnings({"rawtypes", "unchecked"})		// N has the raw bound of DoubleLinkedList<N>
+	private static final class ListSpliterator<N extends Node> implements Spliterator<N>
+	{
+		private N current;
+		private int remaining;
+		
+		ListSpliterator (N current, int remaining)
+		{
+			this.current = current;
+			this.remaining = remaining;
+		}
+		
+		@Override
+		public boolean tryAdvance (Consumer<? super N> action)
+		{
+			if (remaining == 0)
+			{
+				return false;
+			}
+			N n = current;
+			current = (N) n.getNext();
+			remaining--;
+			action.accept(n);
+			return true;
+		}
+		
+		@Override
+		public void forEachRemaining (Consumer<? super N> action)
+		{
+			N n = current;
+			for (int i = remaining; i > 0; i--)
+			{
+				N next = (N) n.getNext();
+				action.accept(n);
+				n = next;
+			}
+			current = n;
+			remaining = 0;
+		}
+		
+		@Override
+		public Spliterator<N> trySplit ()
+		{
+			if (remaining < 2)
+			{
+				return null;
+			}
+			int half = remaining >>> 1;
+			ListSpliterator<N> prefix = new ListSpliterator<N> (current, half);
+			N n = current;
+			for (int i = 0; i < half; i++)
+			{
+				n = (N) n.getNext();
+			}
+			current = n;
+			remaining -= half;
+			return prefix;
+		}
+		
+		@Override
+		public long estimateSize ()
+		{
+			return remaining;
+		}
+		
+		@Override
+		public int characteristics ()
+		{
+			return ORDERED | SIZED | SUBSIZED | NONNULL;
+		}
+	}
+}
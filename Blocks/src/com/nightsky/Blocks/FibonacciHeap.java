@@ -1,39 +1,53 @@
 package com.nightsky.Blocks;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.LinkedList;
+import java.util.List;
+import java.util.function.Consumer;
 
-public abstract class FibonacciHeap<E> 
+public abstract class FibonacciHeap<E> implements PriorityHeap<E>
 {
 	DoubleLinkedList<HeapNode<E>> roots;	// Doubly-Linked List connecting all roots
-	Array<HeapNode<E>> rank;				// rank[] used during remove operations / consolidation
-	int ranked;
+	Array<HeapNode<E>> rank;				// rank[] used during remove operations / consolidation, kept between removes
 	
 	private HeapNode<E> top;				// Pointer to the top of the heap
 	
 	private int num_nodes;
 
-	private String top_label = "top";		// top_label will be used for debug output
+	private String top_label = "top";		// top_label is printed by printHeap () and printRoots ()
 											// if it is a min heap, you can call FibonacciHeap ("min", ...) constructor
-	private boolean debug_output;			// boolean set when the constructor is called, 'true' if user wants debug output
+	
+	private HeapNode<E> probe;				// stand-in node for the new value in offer () and order ()
+	private ListCursor<HeapNode<E>> root_cursor = new ListCursor<HeapNode<E>> ();	// reused by the print routines
+	
+	private int node_pool_capacity;			// pooled mode: most nodes kept in roots' recycle pool, 0 = off
+	
+	private HeapMetrics metrics;			// null unless setMetrics () was called
+	
+	private int capacity;					// bounded mode: most values kept by offer (), 0 = unbounded
 	
 	public FibonacciHeap () 
 	{
 		top = null;
 		roots = new DoubleLinkedList<HeapNode<E>> ();
+		rank = new Array<HeapNode<E>> (16);
 	}
 	
 	/**
 	 * public FibonacciHeap (String top_label, boolean debug_mode)
 	 * 
-	 * @param String top_label - label to use in some debug output
-	 * @param boolean debug_mode - 'true' to provide debug output
+	 * @param String top_label - label for the top in printHeap () and printRoots ()
+	 * @param boolean debug_mode - 'true' to start with a HeapMetrics attached, see getMetrics ()
 	 */
 	public FibonacciHeap (String top_label, boolean debug_mode) 
 	{
 		top = null;
 		roots = new DoubleLinkedList<HeapNode<E>> ();
+		rank = new Array<HeapNode<E>> (16);
 		this.top_label = top_label;
-		debug_output = debug_mode;
+		if (debug_mode) metrics = new HeapMetrics ();
 	}
 	
 	/**
@@ -47,6 +61,32 @@ public abstract class FibonacciHeap<E>
 	 */
 	abstract HeapNode<E> compare (HeapNode<E> n1, HeapNode<E> n2);
 	
+	/**
+	 * int order (E value, HeapNode<E> n) - negative if 'value' belongs nearer the top than the value
+	 * 		of 'n', positive if it belongs further from it, and 0 if they tie. This default puts 'value'
+	 * 		in a stand-in node and asks compare () both ways round, so a tie is whatever compare ()
+	 * 		does not tell apart; extending classes with a Comparator can override it with one call.
+	 * 
+	 * @param E value
+	 * @param HeapNode<E> n
+	 * @return int
+	 */
+	int order (E value, HeapNode<E> n)
+	{
+		if (probe == null)
+		{
+			probe = new HeapNode<E> (value);
+		}
+		else
+		{
+			probe.setValue(value);
+		}
+		boolean above = compare (probe, n) == probe;
+		boolean below = compare (n, probe) == n;
+		probe.setValue(null);
+		return (above == below) ? 0 : (above ? -1 : 1);
+	}
+	
     
 	/**
 	 * public void insert (E value) - new node will be added to the heap. Inserts are handled
@@ -57,17 +97,44 @@ public abstract class FibonacciHeap<E>
      * @retrun HeapNode<E> pointer to node that was inserted.
 	 */
 	public HeapNode<E> insert (E value){
-		HeapNode<E> n = new HeapNode<E> (value);
+		HeapNode<E> n = newNode (value);
 		insert (n);
         return n;
 	}
 	
+	/**
+	 * private HeapNode<E> newNode (E value) - a node holding 'value', from the recycle pool in pooled
+	 * 		mode if it has one.
+	 */
+	private HeapNode<E> newNode (E value)
+	{
+		HeapNode<E> n = (node_pool_capacity > 0) ? roots.getRecycledNode() : null;
+		if (n == null)
+		{
+			return new HeapNode<E> (value);
+		}
+		n.setValue(value);
+		return n;
+	}
+	
 	/**
 	 * public void insert (HeapNode<E> n) - 
 	 * 
 	 * @param HeapNode<E> n
 	 */
 	public void insert (HeapNode<E> n)
+	{
+		if (metrics == null)
+		{
+			addRoot (n);
+			return;
+		}
+		long start = System.nanoTime();
+		addRoot (n);
+		metrics.inserted(System.nanoTime() - start);
+	}
+	
+	private void addRoot (HeapNode<E> n)
 	{
 		if (top == null)
 		{
@@ -80,10 +147,260 @@ public abstract class FibonacciHeap<E>
 			roots.add(n);
 		}
 		num_nodes++;
-		if(debug_output) {System.out.print("heap.insert() ");printNodeKey(n);printNodeValue(n);printHeap("-> ");}
-		
 	}
-	
+
+	/**
+	 * public void insertAll (E[] values) - adds a batch of values to the root list. Like insert (E),
+	 * 		the values are not ordered until a remove operation, and 'top' costs a single compare
+	 * 		per value. In pooled mode the nodes come from the recycle pool first.
+	 *
+	 * @param E[] values
+	 */
+	public void insertAll (E[] values)
+	{
+		HeapNode<E> best = top;
+		for (int i = 0; i < values.length; i++)
+		{
+			HeapNode<E> n = newNode (values[i]);
+			roots.add(n);
+			best = (best == null) ? n : compare(n, best);
+		}
+		top = best;
+		num_nodes += values.length;
+		if (metrics != null) metrics.insertedAll(values.length);
+	}
+
+	/**
+	 * public void insertAll (Iterable<? extends E> values) - see insertAll (E[] values).
+	 *
+	 * @param Iterable<? extends E> values
+	 */
+	public void insertAll (Iterable<? extends E> values)
+	{
+		HeapNode<E> best = top;
+		int count = 0;
+		for (E value : values)
+		{
+			HeapNode<E> n = newNode (value);
+			roots.add(n);
+			best = (best == null) ? n : compare(n, best);
+			count++;
+		}
+		top = best;
+		num_nodes += count;
+		if (metrics != null) metrics.insertedAll(count);
+	}
+
+	/**
+	 * public void meld (FibonacciHeap<E> other) - O(1) operation. Moves every node of 'other' into this
+	 * 		heap by splicing its root list onto this heap's root list; 'other' is left empty. Both heaps
+	 * 		must order their values the same way, i.e. have equivalent compare () implementations.
+	 *
+	 * @param FibonacciHeap<E> other
+	 */
+	public void meld (FibonacciHeap<E> other)
+	{
+		if (other == this || other.top == null)
+		{
+			return;
+		}
+		HeapNode<E> other_top = other.top;
+		roots.concat(other.roots);
+		top = (top == null) ? other_top : compare(other_top, top);
+		num_nodes += other.num_nodes;
+		if (metrics != null) metrics.melded(other.num_nodes);
+
+		other.top = null;
+		other.num_nodes = 0;
+	}
+
+	/**
+	 * public void setNodePoolCapacity (int capacity) - turns on pooled mode when 'capacity' > 0. Nodes
+	 * 		given back with release () are kept in the recycle pool of the root list, up to 'capacity'
+	 * 		of them, and insert (E value) takes its node from there before creating a new one. A queue
+	 * 		that releases what it removes then stops allocating once the pool has filled up.
+	 * 		Lowering the capacity drops the extra pooled nodes; 0 turns pooled mode off.
+	 *
+	 * @param int capacity - most nodes kept for reuse
+	 */
+	public void setNodePoolCapacity (int capacity)
+	{
+		if (capacity < 0)
+		{
+			throw new IllegalArgumentException ("capacity must not be negative: " + capacity);
+		}
+		node_pool_capacity = capacity;
+		while (roots.recycledNodes() > capacity)
+		{
+			roots.getRecycledNode();
+		}
+	}
+
+	public int getNodePoolCapacity ()
+	{
+		return node_pool_capacity;
+	}
+
+	/**
+	 * public void release (HeapNode<E> n) - gives a node returned by remove () or delete () back to
+	 * 		the heap once the caller is done with it. In pooled mode the node is cleared and kept for
+	 * 		a later insert (E value), unless the pool is full; otherwise it is left to the garbage
+	 * 		collector. 'n' must not be used after this call.
+	 *
+	 * @param HeapNode<E> n - node which is no longer in the heap
+	 */
+	public void release (HeapNode<E> n)
+	{
+		if (n.getNext() != null)
+		{
+			throw new IllegalArgumentException ("node is still in a heap");
+		}
+		if (roots.recycledNodes() >= node_pool_capacity)
+		{
+			return;
+		}
+		n.setValue(null);
+		n.setParent(null);
+		n.setMarked(false);
+		n.deleting = false;
+		roots.recycle(n);
+	}
+
+	/**
+	 * public void setCapacity (int capacity) - turns on bounded mode when 'capacity' > 0, for keeping the
+	 * 		best 'capacity' values of a stream with offer (). The top is then the worst survivor: a heap
+	 * 		that keeps the K largest values is a MinFibonacciHeap with capacity K. If the heap holds more
+	 * 		values than 'capacity', the extra ones are removed from the top. 0 turns bounded mode off.
+	 *
+	 * @param int capacity - most values kept
+	 */
+	public void setCapacity (int capacity)
+	{
+		if (capacity < 0)
+		{
+			throw new IllegalArgumentException ("capacity must not be negative: " + capacity);
+		}
+		this.capacity = capacity;
+		if (capacity > 0)
+		{
+			while (num_nodes > capacity)
+			{
+				remove ();
+			}
+		}
+	}
+
+	public int getCapacity ()
+	{
+		return capacity;
+	}
+
+	/**
+	 * public boolean offer (E value) - inserts 'value' while the heap is below its capacity. Once it is
+	 * 		full, 'value' is compared with the top, the worst survivor: if it is no better (it would
+	 * 		go to the top itself) it is rejected in O(1), otherwise it takes the place of the top. The
+	 * 		node of the removed value is reused for 'value', so a full heap allocates nothing; a
+	 * 		HeapNode returned by an earlier insert () may therefore be given a new value by offer ().
+	 * 		Without a capacity, offer () is insert ().
+	 *
+	 * @param E value
+	 * @return boolean - 'true' if 'value' was kept.
+	 */
+	public boolean offer (E value)
+	{
+		if (capacity == 0 || num_nodes < capacity)
+		{
+			insert (value);
+			return true;
+		}
+		if (probe == null)
+		{
+			probe = new HeapNode<E> (value);
+		}
+		else
+		{
+			probe.setValue(value);
+		}
+		boolean rejected = compare(probe, top) == probe;		// 'value' belongs at the top, or ties with it
+		probe.setValue(null);
+		if (rejected)
+		{
+			return false;
+		}
+
+		long start = (metrics == null) ? 0 : System.nanoTime();
+		HeapNode<E> worst = removeTop ();
+		worst.setValue(value);
+		worst.setMarked(false);
+		worst.deleting = false;
+		addRoot (worst);
+		if (metrics != null) metrics.valueChanged(System.nanoTime() - start);
+		return true;
+	}
+
+	/**
+	 * public List<E> survivors () - the values in the heap, best first, i.e. in the opposite order to
+	 * 		remove (). The heap is not changed. O(n log n), it is meant for reading the result of a
+	 * 		bounded heap now and then, not for every offer ().
+	 *
+	 * @return List<E> new list of the values
+	 */
+	public List<E> survivors ()
+	{
+		final List<HeapNode<E>> nodes = new ArrayList<HeapNode<E>> (num_nodes);
+		forEachNode(new Consumer<HeapNode<E>> ()
+		{
+			@Override
+			public void accept (HeapNode<E> n)
+			{
+				nodes.add(n);
+			}
+		});
+		// best first: a node goes before another if the other would be brought to the top first
+		Collections.sort(nodes, new Comparator<HeapNode<E>> ()
+		{
+			@Override
+			public int compare (HeapNode<E> n1, HeapNode<E> n2)
+			{
+				boolean n1_up = FibonacciHeap.this.compare(n1, n2) == n1;
+				boolean n2_up = FibonacciHeap.this.compare(n2, n1) == n2;
+				return (n1_up == n2_up) ? 0 : (n1_up ? 1 : -1);
+			}
+		});
+		List<E> values = new ArrayList<E> (nodes.size());
+		for (HeapNode<E> n : nodes)
+		{
+			values.add(n.getValue());
+		}
+		return values;
+	}
+
+	/**
+	 * public void setMetrics (HeapMetrics metrics) - starts counting into 'metrics', or stops when it
+	 * 		is null. See HeapMetrics for what is counted.
+	 *
+	 * @param HeapMetrics metrics
+	 */
+	public void setMetrics (HeapMetrics metrics)
+	{
+		this.metrics = metrics;
+	}
+
+	public HeapMetrics getMetrics ()
+	{
+		return metrics;
+	}
+
+	/**
+	 * void restored (HeapNode<E> top, int num_nodes) - used by SnapshotReader once it has linked a
+	 * 		forest into 'roots' by itself.
+	 */
+	void restored (HeapNode<E> top, int num_nodes)
+	{
+		this.top = top;
+		this.num_nodes = num_nodes;
+	}
+
 	/**
 	 * public HeapNode<E> getTop () - returns a HeapNode pointer to the top of the heap.
 	 * 
@@ -100,6 +417,18 @@ public abstract class FibonacciHeap<E>
 	 * @return HeapNode<E> top
 	 */
 	public HeapNode<E> remove ()
+	{
+		if (metrics == null)
+		{
+			return removeTop ();
+		}
+		long start = System.nanoTime();
+		HeapNode<E> n = removeTop ();
+		metrics.removed(System.nanoTime() - start);
+		return n;
+	}
+	
+	private HeapNode<E> removeTop ()
 	{
 		
 		// If there is no top, return
@@ -111,178 +440,87 @@ public abstract class FibonacciHeap<E>
 		// Keep a pointer to the top of the heap, we will return this later
 		HeapNode<E> top_ptr = top;
 		
-		// We will walk across the roots
-		HeapNode<E> current = null;
-		
-		// We will remove the top of the heap, so we must move 'top' pointer to 
-		// a node that will exist after we remove 'top'
-		if (top == top.getNext())
-		{
-			current = top.getChildren().getPointer();
-		}
-		else
-		{
-			current = (HeapNode<E>) top.getNext();
-		}
-		
-		// #DEBUG OUTPUT - showing which node will be removed
-		if(debug_output) {
-            printHeap ("heap.remove() Heap: ");
-			System.out.print("heap.remove() will remove "); printNodeKey(top_ptr);printNodeValue(top_ptr);System.out.print('\n');
-			System.out.print("heap.remove(), "); printNodeKey(top_ptr);printNodeValue(top_ptr); System.out.print(" //next=");printNodeKey((HeapNode<E>) top_ptr.getNext());printNodeValue((HeapNode<E>) top_ptr.getNext());System.out.println();
-		}
-		
-		
 		// If the top of the heap has children, add them to the list of root nodes, 
 		// then remove the top
-		if (top.getChildren().size() != 0) 
-		{
-			for (HeapNode<E> c : top.getChildren())
-			{
-				c.setParent(null);
-			}
-			roots.concatAt(top, top.getChildren());
-		}
+		promoteChildren (top);
 		roots.remove(top);
 		num_nodes--;
 		
-		// #DEBUG OUTPUT - shows the result of removing the top, the current roots, and whole heap
-		if (debug_output)
-		{
-			System.out.print("heap.remove() roots.getPointer=");
-            if (roots.getPointer() != null)
-            {
-                printNodeKey(roots.getPointer());
-                printNodeValue(roots.getPointer());      
-            }
-            System.out.println();
-			printRoots ("heap.remove() following removal, roots=");
-			printHeap("heap.remove() following removal, ");
-		}
-		
-		
-		/////////////////////////////////////////////////////////////////////
-		//
-		//	Each root must have a different rank, we are setting up variables for 
-		//  accomplishing that here
-		int n_ranks;
-		if (num_nodes > 0) n_ranks = (int)((2.5 * (Math.log(num_nodes))) + 1);
-		else n_ranks = 1;
-		if(debug_output) {System.out.println("heap.remove() making rank[" + n_ranks + "] for num_nodes=" + num_nodes);}
-		
-														// e.g. if roots[] = {A, B, C, D}
-		rank = new Array<HeapNode<E>> (n_ranks);		// rank[], if node A has 1 child, then rank[1] = A
-		ranked = 0;
-		
-		
-		/////////////////////////////////////////////////////////////////////
-		//
-		// Consolidate the trees, no trees can have the 
-		// same rank (rank = number of children)
+		consolidate ();
 		
-		top = current;		// Assume the first root should be at the top of the heap, we will analyze all roots
-		
-		if (roots.size() == 0) 
-		{
-			top = null;	
-		}
-		else
-		{
-			do 
-			{				
-				
-				// #DEBUG OUTPUT - print out which node is 'current'
-				if(debug_output) {System.out.print("heap.remove() current("); printNodeKey(current); System.out.println(") requests rank=" + current.getChildren().size());}
-				
-				
-				// If current is a node that is already ranked, 
-				// change it to a node from the rank_list (the list of unranked roots)
-				while (rank.get(current.getChildren().size()) == current)
-				{
-					if(debug_output) System.out.println("heap.remove() current was already ranked");
-					current = (HeapNode<E>) current.getNext();
-					// 'current' has changed. Compare it with the current 'top'	
-				}
-				top = compare (current, top);
-				
-				// If the rank[current.children] is empty, register 
-				// current with  this rank
-				if (rank.get(current.getChildren().size()) == null)
-				{
-					
-					// rank[root.num_children] ---> root
-					// e.g.
-					//       0 1 2 3 4 5
-					//	rank[+| | | | | ]
-					//       |
-					//       root
-					rank.set(current.getChildren().size(), current); ranked++;
-					if (debug_output) {System.out.print("heap.remove() current(");printNodeKey(current);System.out.println(") given rank " + current.getChildren().size());}
-					current = (HeapNode<E>)current.getNext();
-				}
-				
-				// If there is a root of this rank already, we will have to attach this root to another 
-				// root's tree (in this implementation, we will attach it to the first root that is registered
-				// in the rank[] array
-				// e.g.
-				//	       0 1 2 3 4 5
-				//	rank[+| | | | | ]
-				//       |\
-				//    root root				Must attach to another tree!
-				else
-				{
-					if (debug_output) System.out.println("heap.remove() rank not available...");
-					
-					// Scan rank[] for a tree to attach to
-					for (int r=0; r < rank.length(); r++)
-					{
-						
-						HeapNode<E> rank_root = rank.get(r);
-						if (rank_root != null)
-						{
-							rank.remove(r); ranked--;
-							current = combine (rank_root, current);
-							break;
-						}
-					}
-				}
-				if(debug_output) {System.out.print("heap.remove() ");printRanks ();}
-				
-				
-				// 'current' has changed. Compare it with the current 'top'
-				top = compare (current, top);
-				
-			} while (ranked != roots.size());
-		}
-		if(debug_output)
-		{
-			printHeap("heap.remove() finished, ");
-			printRoots ("heap.remove() finished, roots=");
-		}
 		return top_ptr;	// temp pointer to top we set at the top of remove ()
 	}
 	
-	
 	/**
-	 * private void printRanks () - will print the rank[] array in this format '|A| |C| | | | |' if node A is in rank[0] and C in ran[2]
+	 * private void consolidate () - Consolidate the trees, no trees can have the same rank 
+	 * 		(rank = number of children). rank[] is indexed by rank, so a root finds the tree it 
+	 * 		has to be combined with directly. rank[] is kept between removes and is left empty 
+	 * 		afterwards; it only grows (through Array.set) when a tree of a new rank shows up, 
+	 * 		so a steady-state remove () allocates nothing.
 	 */
-	private void printRanks () 
+	private void consolidate ()
 	{
-		for (int i = 0; i < rank.length(); i++)
+		top = null;
+		int n_roots = roots.size();
+		if (n_roots == 0) 
 		{
-			System.out.print("|");
-			if (rank.get(i) != null) 
+			return;
+		}
+		
+		// e.g. if roots[] = {A, B, C, D}
+		// rank[], if node A has 1 child, then rank[1] = A
+		int max_rank = 0;
+		int linked = 0;
+		if (metrics != null) metrics.consolidating();
+		HeapNode<E> current = roots.getPointer();
+		for (int i = 0; i < n_roots; i++)
+		{
+			// combine () may move 'current' below another root, so remember where to continue
+			HeapNode<E> next = (HeapNode<E>) current.getNext();
+			int r = current.getDegree();
+			
+			// If there is a root of this rank already, the two trees are combined and the 
+			// result requests the next rank, until it finds a free one
+			// e.g.
+			//	       0 1 2 3 4 5
+			//	rank[+| | | | | ]
+			//       |\
+			//    root root				Must attach to another tree!
+			HeapNode<E> rank_root;
+			while ((rank_root = rank.get(r)) != null)
 			{
-				 printNodeKey(rank.get(i));
+				rank.remove(r);
+				current = combine (rank_root, current);
+				linked++;
+				r++;
 			}
-			else
+			
+			// rank[root.num_children] ---> root
+			// e.g.
+			//       0 1 2 3 4 5
+			//	rank[+| | | | | ]
+			//       |
+			//       root
+			rank.set(r, current);
+			if (r > max_rank) max_rank = r;
+			
+			current = next;
+		}
+		
+		// The remaining roots all have different ranks, empty rank[] and pick the top among them
+		for (int r = 0; r <= max_rank; r++)
+		{
+			HeapNode<E> rank_root = rank.get(r);
+			if (rank_root != null)
 			{
-				System.out.print(" ");
+				rank.remove(r);
+				top = (top == null) ? rank_root : compare (rank_root, top);
 			}
 		}
-		System.out.println();
+		if (metrics != null) metrics.consolidated(n_roots, linked, max_rank, num_nodes);
 	}
 	
+	
 	/**
 	 * private Node<E> combine (Node<E> root, Node<E> n) - combines 'root' tree and 'n' tree in 
 	 * 		the fashion dictated by the function compare (). Whichever is determined to be below the other
@@ -301,11 +539,6 @@ public abstract class FibonacciHeap<E>
 		{
 			roots.remove(n);
 			root.addChild(n); 
-			if (debug_output)
-			{
-				printRoots("heap.combine() result:");
-				printHeap("heap.combine() result:"); 
-			}
 			return root;
 		}
 		// If the current node must take the root's place
@@ -315,11 +548,6 @@ public abstract class FibonacciHeap<E>
 		{
 			roots.remove(root);
 			n.addChild(root);
-			if (debug_output)
-			{
-				printRoots("heap.combine() result:");
-				printHeap("heap.combine() result:");
-			}
 			return n;
 		}	
 		
@@ -330,28 +558,35 @@ public abstract class FibonacciHeap<E>
 	 * the value is increased or decreased: <p>
 	 * 
 	 * private void moveDown (HeapNode<E> n), or <p>
-	 * private void moveDown (HeapNode<E> n) <p>
+	 * private void moveUp (HeapNode<E> n) <p>
 	 * 
 	 * @param HeapNode<E>n
 	 * @param V newValue
 	 */
 	public void changeValue (HeapNode<E> n, E newValue)
-	{	
-		if(debug_output){System.out.print("heap.changeValue() ");printNodeKey (n);printNodeValue(n); System.out.print(" changing to " + newValue + ",");}
-		/*
-        if (n.getValue() == newValue) 
+	{
+		if (metrics == null)
 		{
+			changeNodeValue (n, newValue);
 			return;
-		}*/
-		HeapNode<E> n_ = new HeapNode<E>(newValue);
-		if (compare(n, n_) == n)
+		}
+		long start = System.nanoTime();
+		changeNodeValue (n, newValue);
+		metrics.valueChanged(System.nanoTime() - start);
+	}
+	
+	private void changeNodeValue (HeapNode<E> n, E newValue)
+	{	
+		int c = order (newValue, n);
+		n.setValue(newValue);
+		
+		// a value that ties with the old one leaves the heap as it was
+		if (c > 0)
 		{
-			n.setValue(newValue);
 			moveDown (n);
 		}
-		else
+		else if (c < 0)
 		{
-			n.setValue(newValue);
 			top = compare (n, top);
 			if (n.getParent() != null) moveUp (n);
 		}
@@ -364,22 +599,115 @@ public abstract class FibonacciHeap<E>
 	 */
     public void nodeValueDecreased (HeapNode<E> n)
     {
-        if(debug_output){System.out.print("heap.changeValue() ");printNodeKey (n);printNodeValue(n); System.out.println();}
+        long start = (metrics == null) ? 0 : System.nanoTime();
         top = compare (n, top);
         if (n.getParent() != null) moveUp (n);
+        if (metrics != null) metrics.valueChanged(System.nanoTime() - start);
     }
+
+	/**
+	 * public void changeValue (HeapHandle<E> handle, E newValue) - PriorityHeap version of
+	 * 		changeValue (HeapNode<E> n, E newValue); 'handle' must be a HeapNode of this heap.
+	 *
+	 * @param HeapHandle<E> handle
+	 * @param E newValue
+	 */
+	@Override
+	public void changeValue (HeapHandle<E> handle, E newValue)
+	{
+		changeValue ((HeapNode<E>) handle, newValue);
+	}
+
+	/**
+	 * public void nodeValueDecreased (HeapHandle<E> handle) - PriorityHeap version of
+	 * 		nodeValueDecreased (HeapNode<E> n); 'handle' must be a HeapNode of this heap.
+	 *
+	 * @param HeapHandle<E> handle
+	 */
+	@Override
+	public void nodeValueDecreased (HeapHandle<E> handle)
+	{
+		nodeValueDecreased ((HeapNode<E>) handle);
+	}
+	
+	/**
+	 * public HeapNode<E> delete (HeapNode<E> n) - removes 'n' from the heap wherever it is. 'n' is cut
+	 * 		to the root list (with cascading cuts, as when its value is decreased), made the top and 
+	 * 		removed, so it costs the same as remove ().
+	 * 
+	 * @param HeapNode<E> n - node which is in this heap
+	 * @return HeapNode<E> n
+	 */
+	public HeapNode<E> delete (HeapNode<E> n)
+	{
+		long start = (metrics == null) ? 0 : System.nanoTime();
+		if (n.getParent() != null) cut (n);
+		top = n;
+		removeTop ();
+		if (metrics != null) metrics.deleted(System.nanoTime() - start);
+		return n;
+	}
+
+	/**
+	 * public HeapNode<E> delete (HeapHandle<E> handle) - PriorityHeap version of
+	 * 		delete (HeapNode<E> n); 'handle' must be a HeapNode of this heap.
+	 *
+	 * @param HeapHandle<E> handle
+	 * @return HeapNode<E> handle
+	 */
+	@Override
+	public HeapNode<E> delete (HeapHandle<E> handle)
+	{
+		return delete ((HeapNode<E>) handle);
+	}
 	
 	/**
-	 * private void moveDown (HeapNode<E> n) - Currently unimplemented. Will be used if 
-	 * a node's key must be adjusted in a manner that it has to move down the tree.
+	 * private void moveDown (HeapNode<E> n) - If a node's value changed in a manner that it has 
+	 * to move down the tree, it will be handled here. 'n' is cut to the root list and its children, 
+	 * which may now belong above it, become roots as well. The next consolidation puts them in place.
 	 * 
 	 * @param HeapNode<E> n
 	 */
 	private void moveDown (HeapNode<E> n)
 	{
-		if(debug_output) System.out.print("down,");
-		System.err.println("FibonacciHeap.moveDown() is unimplemented.");
-		// TODO
+		// The top itself moved down, take it out and put it back,
+		// remove () finds the new top while consolidating
+		if (n == top)
+		{
+			removeTop ();
+			n.setMarked(false);
+			addRoot (n);
+			return;
+		}
+		
+		if (n.getParent() != null) cut (n);
+		
+		promoteChildren (n);
+	}
+	
+	/**
+	 * private void promoteChildren (HeapNode<E> n) - moves the children of root 'n' into the root list
+	 * after it, unmarked, so that a promoted child is not cut on the first child it loses once 
+	 * consolidation links it under another root.
+	 * 
+	 * @param HeapNode<E> n - a root
+	 */
+	private void promoteChildren (HeapNode<E> n)
+	{
+		HeapNode<E> first = n.getChild();
+		if (first == null) 
+		{
+			return;
+		}
+		HeapNode<E> c = first;
+		do
+		{
+			c.setParent(null);
+			c.setMarked(false);
+			c = (HeapNode<E>) c.getNext();
+		} while (c != first);
+		roots.concatAt(n, first, n.getDegree());
+		n.clearChildren();
 	}
 	
 	/**
@@ -390,43 +718,48 @@ public abstract class FibonacciHeap<E>
 	 */
 	private void moveUp (HeapNode<E> n)
 	{
-		if(debug_output) System.out.print("up,");
 		HeapNode<E> p = n.getParent();
 		if (compare(n, p) == p)
 		{
-			if(debug_output) System.out.println(" same position");
 			return;
 		}
 		else
 		{
-			if(debug_output) System.out.print(" move to root,");
-			
-			// n must be moved to a root position
-			// remove it from the parent
-			if(debug_output) { printNodeKey (p); System.out.print(" removing "); printNodeKey (n); System.out.print('\n');}
-			p.getChildren().remove(n);
-			roots.add(n);
-			n.setMarked(false);
+			cut (n);
 			top = compare (n, top);
+		}
+	}
+	
+	/**
+	 * private void cut (HeapNode<E> n) - n must be moved to a root position, remove it from the
+	 * parent. If the parent was marked before the cut, it is moved to a root position as well,
+	 * and so on up the tree. The first parent that stays is marked.
+	 * 
+	 * @param HeapNode<E> n - node which has a parent
+	 */
+	private void cut (HeapNode<E> n)
+	{
+		HeapNode<E> p = n.getParent();
+		p.removeChild(n);
+		roots.add(n);
+		n.setMarked(false);
+		
+		int cascaded = 0;
+		while (p.isMarked() == true && p.getParent() != null)
+		{
+			HeapNode<E> pp = p.getParent();
 			
-			// If the parent was marked, before the cut,
-			// move it to a root position as well
-			while (p.isMarked() == true && p.getParent() != null)
-			{
-				HeapNode<E> pp = p.getParent();
-				
-				if(debug_output){printNodeKey (pp); System.out.print(" removing "); printNodeKey (p); System.out.print('\n');}
-				pp.getChildren().remove(p);
-				roots.add(p);
-				p.setMarked(false);
-				top = compare (n, top);
-				p = pp;
-			}
-			if (p.getParent() != null)
-			{
-				p.setMarked(true);
-			}
+			pp.removeChild(p);
+			roots.add(p);
+			p.setMarked(false);
+			p = pp;
+			cascaded++;
 		}
+		if (p.getParent() != null)
+		{
+			p.setMarked(true);
+		}
+		if (metrics != null) metrics.cut(cascaded);
 	}
 	
 	///////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
@@ -437,8 +770,10 @@ public abstract class FibonacciHeap<E>
 	{
 		System.out.print(title);
 		System.out.print("{");
-		for (HeapNode<E> n : roots)
+		root_cursor.reset(roots);
+		while (root_cursor.hasNext())
 		{
+			HeapNode<E> n = root_cursor.next();
 			System.out.print(" "); printNodeKey(n); printNodeValue(n); System.out.print(" ");
 			printChildren (n);
 		} 
@@ -454,12 +789,14 @@ public abstract class FibonacciHeap<E>
 		System.out.println(" num_nodes=" + num_nodes);
 	}
 	
-	private void printRoots (String title)
+	public void printRoots (String title)
 	{
 		System.out.print(title);
 		System.out.print("{");
-		for (HeapNode<E> n : roots)
+		root_cursor.reset(roots);
+		while (root_cursor.hasNext())
 		{
+			HeapNode<E> n = root_cursor.next();
 			System.out.print(" "); printNodeKey(n); printNodeValue(n); System.out.print(" ");
 		} 
 		System.out.print("} " + top_label + "=");
@@ -476,8 +813,7 @@ public abstract class FibonacciHeap<E>
 	
 	/**
 	 * abstract void printNodeValue (HeapNode<E> node) - Extending classes must implement this
-	 * 		method if the user intends to view debug output by calling super(..., true) in the 
-	 * 		extending class' constructor.
+	 * 		method for printHeap () and printRoots ().
 	 * 
 	 * @param HeapNode<E> node
 	 */
@@ -485,8 +821,7 @@ public abstract class FibonacciHeap<E>
 	
 	/**
 	 * abstract void printNodeKey (HeapNode<E> node) - Extending classes must implement this
-	 * 		method if the user intends to view debug output by calling super(..., true) in the 
-	 * 		extending class' constructor.
+	 * 		method for printHeap () and printRoots ().
 	 * 
 	 * @param HeapNode<E> node
 	 */
@@ -494,20 +829,56 @@ public abstract class FibonacciHeap<E>
 	
 	private void printChildren (HeapNode<E> n)
 	{
-		if (n.getChildren().size() == 0) return;
+		if (n.getChild() == null) return;
 		
-		HeapNode<E> child = (HeapNode<E>) n.getChildren().getPointer();
+		HeapNode<E> child = n.getChild();
 		System.out.print ("{");
 		do 
 		{
 			System.out.print(" "); printNodeKey(child); printNodeValue(child); System.out.print(" ");
 			printChildren (child);
 			child = (HeapNode<E>)child.getNext();
-		} while (child != n.getChildren().getPointer());
-		System.out.print("|" + n.getChildren().size() + "|}");
+		} while (child != n.getChild());
+		System.out.print("|" + n.getDegree() + "|}");
 		
 	}
 	
+	/**
+	 * public void forEachNode (Consumer<? super HeapNode<E>> action) - calls 'action' for every node of
+	 * 		the heap, in preorder: each root, then its children (and theirs), then the next root. The walk
+	 * 		follows the child, next and parent pointers, so it needs no stack and allocates nothing.
+	 * 		'action' must not change the heap.
+	 * 
+	 * @param Consumer<? super HeapNode<E>> action
+	 */
+	public void forEachNode (Consumer<? super HeapNode<E>> action)
+	{
+		HeapNode<E> n = roots.getPointer();
+		if (n == null) return;
+		while (true)
+		{
+			action.accept(n);
+			if (n.getChild() != null)
+			{
+				n = n.getChild();
+				continue;
+			}
+			// No children, go to the next sibling, or up to the parent once its children are done
+			while (true)
+			{
+				HeapNode<E> parent = n.getParent();
+				HeapNode<E> next = (HeapNode<E>) n.getNext();
+				if (next != ((parent == null) ? roots.getPointer() : parent.getChild()))
+				{
+					n = next;
+					break;
+				}
+				if (parent == null) return;
+				n = parent;
+			}
+		}
+	}
+	
 	/**
 	 * public int size () - returns the size of nodes in the whole heap.
 	 * 
@@ -0,0 +1,259 @@
+package com.nightsky.Blocks;
+
+import java.util.Arrays;
+import java.util.function.IntToDoubleFunction;
+
+/**
+ * GraphSearch - Dijkstra, A* and Prim over a CsrGraph, on a CompactFibonacciHeap with decrease-key.
+ * A GraphSearch is made once per graph (and per thread) and answers any number of queries: the heap
+ * and the per-vertex arrays are kept between queries, so a query allocates nothing.
+ *
+ * Resetting the arrays would cost O(V) per query however few vertices it reaches, so every vertex
+ * has a stamp instead: its entries belong to the current query only if its stamp is the query's
+ * number, and a new query just takes the next number.
+ *
+ * After a query, distance () and predecessor () describe what it reached. Edge weights must not be
+ * negative.
+ */
+public class GraphSearch
+{
+	private static final int NONE = -1;
+
+	private final CsrGraph graph;
+	private final int[] offsets;
+	private final int[] targets;
+	private final double[] weights;
+
+	private final CompactFibonacciHeap heap = new CompactFibonacciHeap ();
+	private final double[] dist;		// distance, or the weight of the tree edge after prim ()
+	private final int[] pred;			// predecessor on the path, or parent in the tree
+	private final int[] handle;			// heap handle of a queued vertex, NIL once it is settled
+	private final int[] vertex_of;		// vertex of a heap handle
+	private final int[] stamp;			// entries of v are valid when stamp[v] == query
+	private int query;
+	private int settled;
+
+	/**
+	 * public GraphSearch (CsrGraph graph)
+	 *
+	 * @param CsrGraph graph
+	 */
+	public GraphSearch (CsrGraph graph)
+	{
+		this.graph = graph;
+		offsets = graph.offsets();
+		targets = graph.targets();
+		weights = graph.weights();
+		int num_vertices = graph.numVertices();
+		dist = new double[num_vertices];
+		pred = new int[num_vertices];
+		handle = new int[num_vertices];
+		vertex_of = new int[num_vertices];
+		stamp = new int[num_vertices];
+	}
+
+	public CsrGraph getGraph ()
+	{
+		return graph;
+	}
+
+	/**
+	 * public void dijkstra (int source) - shortest distances from 'source' to every vertex.
+	 *
+	 * @param int source
+	 */
+	public void dijkstra (int source)
+	{
+		search (source, NONE, null);
+	}
+
+	/**
+	 * public double dijkstra (int source, int target) - shortest distance from 'source' to 'target'. The
+	 * 		search stops as soon as 'target' is settled.
+	 *
+	 * @param int source
+	 * @param int target
+	 * @return double distance, POSITIVE_INFINITY if 'target' cannot be reached.
+	 */
+	public double dijkstra (int source, int target)
+	{
+		checkVertex (target);
+		search (source, target, null);
+		return distance (target);
+	}
+
+	/**
+	 * public double aStar (int source, int target, IntToDoubleFunction heuristic) - like
+	 * 		dijkstra (source, target), with the queue ordered by distance + heuristic (v). The heuristic
+	 * 		must be consistent: h (v) <= weight (v, w) + h (w) for every edge, and h (target) = 0; a
+	 * 		straight-line distance on a geometric graph is.
+	 *
+	 * @param int source
+	 * @param int target
+	 * @param IntToDoubleFunction heuristic - lower bound of the distance from a vertex to 'target'
+	 * @return double distance, POSITIVE_INFINITY if 'target' cannot be reached.
+	 */
+	public double aStar (int source, int target, IntToDoubleFunction heuristic)
+	{
+		checkVertex (target);
+		search (source, target, heuristic);
+		return distance (target);
+	}
+
+	/**
+	 * public double prim (int root) - minimum spanning tree of the component of 'root'. The graph must
+	 * 		be undirected (see CsrGraph.fromEdges ()). Afterwards predecessor (v) is the parent of v in
+	 * 		the tree and distance (v) the weight of the edge to it.
+	 *
+	 * @param int root
+	 * @return double total weight of the tree.
+	 */
+	public double prim (int root)
+	{
+		start (root);
+		double total = 0;
+		while (heap.size() > 0)
+		{
+			int v = vertex_of[heap.remove()];
+			handle[v] = CompactFibonacciHeap.NIL;
+			settled++;
+			total += dist[v];
+			for (int e = offsets[v], end = offsets[v + 1]; e < end; e++)
+			{
+				relax (v, targets[e], weights[e], weights[e]);
+			}
+		}
+		return total;
+	}
+
+	/**
+	 * public double distance (int v) - result of the last query for 'v', see the query methods.
+	 *
+	 * @param int v
+	 * @return double, POSITIVE_INFINITY if the last query did not reach 'v'.
+	 */
+	public double distance (int v)
+	{
+		return (stamp[v] == query) ? dist[v] : Double.POSITIVE_INFINITY;
+	}
+
+	/**
+	 * public int predecessor (int v) - vertex before 'v' on its path from the source (or its parent in
+	 * 		the tree after prim ()).
+	 *
+	 * @param int v
+	 * @return int vertex, -1 for the source and for vertices the last query did not reach.
+	 */
+	public int predecessor (int v)
+	{
+		return (stamp[v] == query) ? pred[v] : NONE;
+	}
+
+	/**
+	 * public int[] path (int target) - vertices from the source to 'target' as found by the last query.
+	 *
+	 * @param int target
+	 * @return int[] path, empty if 'target' was not reached.
+	 */
+	public int[] path (int target)
+	{
+		if (stamp[target] != query)
+		{
+			return new int[0];
+		}
+		int length = 0;
+		for (int v = target; v != NONE; v = pred[v]) length++;
+		int[] path = new int[length];
+		for (int v = target; v != NONE; v = pred[v]) path[--length] = v;
+		return path;
+	}
+
+	/**
+	 * public int settled () - number of vertices the last query took out of the queue.
+	 *
+	 * @return int
+	 */
+	public int settled ()
+	{
+		return settled;
+	}
+
+	/**
+	 * private void search (int source, int target, IntToDoubleFunction heuristic) - Dijkstra when
+	 * 		'heuristic' is null, A* otherwise; a 'target' of NONE searches the whole graph.
+	 */
+	private void search (int source, int target, IntToDoubleFunction heuristic)
+	{
+		start (source);
+		while (heap.size() > 0)
+		{
+			int v = vertex_of[heap.remove()];
+			handle[v] = CompactFibonacciHeap.NIL;
+			settled++;
+			if (v == target)
+			{
+				return;
+			}
+			double d = dist[v];
+			for (int e = offsets[v], end = offsets[v + 1]; e < end; e++)
+			{
+				int w = targets[e];
+				double dw = d + weights[e];
+				relax (v, w, dw, (heuristic == null) ? dw : dw + heuristic.applyAsDouble(w));
+			}
+		}
+	}
+
+	/**
+	 * private void start (int source) - begins a new query with only 'source' queued.
+	 */
+	private void start (int source)
+	{
+		checkVertex (source);
+		heap.clear();
+		settled = 0;
+		if (++query == Integer.MAX_VALUE)
+		{
+			Arrays.fill(stamp, 0);
+			query = 1;
+		}
+		stamp[source] = query;
+		dist[source] = 0;
+		pred[source] = NONE;
+		int h = heap.insert(0);
+		handle[source] = h;
+		vertex_of[h] = source;
+	}
+
+	/**
+	 * private void relax (int v, int w, double value, double key) - offers 'w' the value 'value' through
+	 * 		'v'. An unseen 'w' is queued with 'key', a queued one has its key decreased if 'value' is
+	 * 		better, a settled one is left alone.
+	 */
+	private void relax (int v, int w, double value, double key)
+	{
+		if (stamp[w] != query)
+		{
+			stamp[w] = query;
+			dist[w] = value;
+			pred[w] = v;
+			int h = heap.insert(key);
+			handle[w] = h;
+			vertex_of[h] = w;
+		}
+		else if (value < dist[w] && handle[w] != CompactFibonacciHeap.NIL)
+		{
+			dist[w] = value;
+			pred[w] = v;
+			heap.decreaseKey(handle[w], key);
+		}
+	}
+
+	private void checkVertex (int v)
+	{
+		if (v < 0 || v >= dist.length)
+		{
+			throw new IllegalArgumentException ("vertex " + v + " outside 0.." + (dist.length - 1));
+		}
+	}
+}
@@ -0,0 +1,23 @@
+package com.nightsky.Blocks;
+
+/**
+ * HeapEventSink - where a HeapMetrics created with jfr_events reports consolidations and cascading
+ * cuts. The only implementation is HeapEvents, which commits JFR events; it is in the jfr/ source
+ * folder, built for Java 11, so that this package itself still builds for Java 8.
+ */
+interface HeapEventSink
+{
+	/**
+	 * Object beginConsolidation () - starts timing a consolidation, null if nobody is recording it.
+	 */
+	Object beginConsolidation ();
+
+	/**
+	 * void endConsolidation (Object started, int root_list_length, int links, int max_degree, int heap_size)
+	 *
+	 * @param Object started - what beginConsolidation () returned, not null
+	 */
+	void endConsolidation (Object started, int root_list_length, int links, int max_degree, int heap_size);
+
+	void cascadingCut (int cascaded);
+}
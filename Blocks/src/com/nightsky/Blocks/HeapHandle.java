@@ -0,0 +1,10 @@
+package com.nightsky.Blocks;
+
+/**
+ * HeapHandle<E> - what a PriorityHeap hands out for an inserted value. Pass it back to
+ * changeValue (), nodeValueDecreased () or delete () of the heap that created it.
+ */
+public interface HeapHandle<E>
+{
+	public E getValue ();
+}
@@ -0,0 +1,475 @@
+package com.nightsky.Blocks;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * HeapMetrics - counters and latency histograms for a FibonacciHeap, attached with
+ * FibonacciHeap.setMetrics (). A heap without metrics only pays a null check per operation; with
+ * metrics it also reads System.nanoTime () twice per operation.
+ *
+ * 		inserts, removes, valueChanges, deletes		operations, each with a latency histogram
+ * 		bulkInserts, bulkInsertedValues				insertAll () calls and the values they added
+ * 		melds, meldedNodes							meld () calls and the nodes they moved in
+ * 		consolidations								remove ()s that consolidated the root list
+ * 		links										trees linked under another root while consolidating
+ * 		cuts, cascadingCuts							nodes cut to the root list, and how many of them were
+ * 													marked parents cut on the way up
+ * 		rootListLength								roots before each consolidation: last, max and mean
+ * 		maxDegree									largest degree of a root after a consolidation
+ *
+ * register () publishes them as an MXBean. With 'jfr_events' the metrics also commit a
+ * com.nightsky.Blocks.HeapConsolidation JFR event for every consolidation and a
+ * com.nightsky.Blocks.HeapCascadingCut event for every cut that cascaded, so a recording shows which
+ * operations the slow ones were; see HeapEvents. The events need a JVM with the jdk.jfr module and
+ * the classes of the jfr/ source folder; without them the metrics are kept but no events are
+ * committed.
+ *
+ * The counters are updated by the thread using the heap without any synchronization, like the heap
+ * itself. Reading them from another thread (through JMX) is safe but may see slightly old values.
+ * A HeapMetrics can be shared by heaps that are used by the same thread.
+ */
+public class HeapMetrics implements HeapMetricsMXBean
+{
+	private final HeapEventSink events;		// HeapEvents, or null without jfr_events or JFR
+	private ObjectName registered_name;
+	private Object consolidation_event;		// HeapEvents.Consolidation being timed, see consolidating ()
+
+	private long bulk_inserts;
+	private long bulk_inserted_values;
+	private long melds;
+	private long melded_nodes;
+	private long consolidations;
+	private long links;
+	private long cuts;
+	private long cascading_cuts;
+	private int max_degree;
+	private int last_root_list_length;
+	private int max_root_list_length;
+	private long root_list_length_sum;
+
+	private final LatencyHistogram inserts = new LatencyHistogram ();
+	private final LatencyHistogram removes = new LatencyHistogram ();
+	private final LatencyHistogram value_changes = new LatencyHistogram ();
+	private final LatencyHistogram deletes = new LatencyHistogram ();
+
+	public HeapMetrics ()
+	{
+		this (false);
+	}
+
+	/**
+	 * public HeapMetrics (boolean jfr_events)
+	 *
+	 * @param boolean jfr_events - 'true' to commit JFR events, see the class comment
+	 */
+	public HeapMetrics (boolean jfr_events)
+	{
+		events = jfr_events ? loadEvents () : null;
+	}
+
+	/**
+	 * private static HeapEventSink loadEvents () - a new HeapEvents, or null if the JVM has no JFR or
+	 * 		the jfr/ classes were not built.
+	 */
+	private static HeapEventSink loadEvents ()
+	{
+		try
+		{
+			Class.forName("jdk.jfr.Event");
+			return (HeapEventSink) Class.forName("com.nightsky.Blocks.HeapEvents").getDeclaredConstructor().newInstance();
+		}
+		catch (ReflectiveOperationException | LinkageError e)
+		{
+			return null;
+		}
+	}
+
+	/**
+	 * public void register (String name) - publishes these metrics on the platform MBean server as
+	 * 		com.nightsky.Blocks:type=FibonacciHeap,name='name'.
+	 *
+	 * @param String name
+	 * @throws IllegalStateException if the name is taken or invalid
+	 */
+	public void register (String name)
+	{
+		MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+		try
+		{
+			ObjectName object_name = new ObjectName ("com.nightsky.Blocks:type=FibonacciHeap,name=" + ObjectName.quote(name));
+			server.registerMBean(this, object_name);
+			registered_name = object_name;
+		}
+		catch (JMException e)
+		{
+			throw new IllegalStateException ("cannot register heap metrics '" + name + "'", e);
+		}
+	}
+
+	/**
+	 * public void unregister () - removes what register () published. Nothing happens if it was not.
+	 */
+	public void unregister ()
+	{
+		if (registered_name == null)
+		{
+			return;
+		}
+		try
+		{
+			ManagementFactory.getPlatformMBeanServer().unregisterMBean(registered_name);
+		}
+		catch (JMException e)
+		{
+			// already gone
+		}
+		registered_name = null;
+	}
+
+	////////////////////////////////////////////////
+	//
+	//	Called by FibonacciHeap
+	//
+	void inserted (long nanos)
+	{
+		inserts.record(nanos);
+	}
+
+	void removed (long nanos)
+	{
+		removes.record(nanos);
+	}
+
+	void valueChanged (long nanos)
+	{
+		value_changes.record(nanos);
+	}
+
+	void deleted (long nanos)
+	{
+		deletes.record(nanos);
+	}
+
+	/**
+	 * void insertedAll (int count) - insertAll () added 'count' values. A batch is a plain loop over
+	 * 		the root list, so it is counted but not timed.
+	 */
+	void insertedAll (int count)
+	{
+		bulk_inserts++;
+		bulk_inserted_values += count;
+	}
+
+	/**
+	 * void melded (int count) - meld () moved 'count' nodes in from another heap.
+	 */
+	void melded (int count)
+	{
+		melds++;
+		melded_nodes += count;
+	}
+
+	/**
+	 * void consolidating () - a consolidation starts, consolidated () follows when it is done.
+	 */
+	void consolidating ()
+	{
+		if (events != null)
+		{
+			consolidation_event = events.beginConsolidation();
+		}
+	}
+
+	/**
+	 * void consolidated (int root_list_length, int linked, int degree, int size) - the consolidation
+	 * 		of 'root_list_length' roots linked 'linked' trees and left roots of at most 'degree' children.
+	 */
+	void consolidated (int root_list_length, int linked, int degree, int size)
+	{
+		consolidations++;
+		links += linked;
+		last_root_list_length = root_list_length;
+		root_list_length_sum += root_list_length;
+		if (root_list_length > max_root_list_length) max_root_list_length = root_list_length;
+		if (degree > max_degree) max_degree = degree;
+		if (consolidation_event != null)
+		{
+			events.endConsolidation(consolidation_event, root_list_length, linked, degree, size);
+			consolidation_event = null;
+		}
+	}
+
+	/**
+	 * void cut (int cascaded) - a node was cut to the root list, followed by 'cascaded' marked parents.
+	 */
+	void cut (int cascaded)
+	{
+		cuts += 1 + cascaded;
+		cascading_cuts += cascaded;
+		if (events != null && cascaded > 0)
+		{
+			events.cascadingCut(cascaded);
+		}
+	}
+
+	////////////////////////////////////////////////
+	//
+	//	HeapMetricsMXBean
+	//
+	@Override
+	public long getInserts ()
+	{
+		return inserts.count;
+	}
+
+	@Override
+	public long getRemoves ()
+	{
+		return removes.count;
+	}
+
+	@Override
+	public long getValueChanges ()
+	{
+		return value_changes.count;
+	}
+
+	@Override
+	public long getDeletes ()
+	{
+		return deletes.count;
+	}
+
+	@Override
+	public long getBulkInserts ()
+	{
+		return bulk_inserts;
+	}
+
+	@Override
+	public long getBulkInsertedValues ()
+	{
+		return bulk_inserted_values;
+	}
+
+	@Override
+	public long getMelds ()
+	{
+		return melds;
+	}
+
+	@Override
+	public long getMeldedNodes ()
+	{
+		return melded_nodes;
+	}
+
+	@Override
+	public long getConsolidations ()
+	{
+		return consolidations;
+	}
+
+	@Override
+	public long getLinks ()
+	{
+		return links;
+	}
+
+	@Override
+	public long getCuts ()
+	{
+		return cuts;
+	}
+
+	@Override
+	public long getCascadingCuts ()
+	{
+		return cascading_cuts;
+	}
+
+	@Override
+	public int getMaxDegree ()
+	{
+		return max_degree;
+	}
+
+	@Override
+	public int getLastRootListLength ()
+	{
+		return last_root_list_length;
+	}
+
+	@Override
+	public int getMaxRootListLength ()
+	{
+		return max_root_list_length;
+	}
+
+	@Override
+	public double getMeanRootListLength ()
+	{
+		return (consolidations == 0) ? 0 : (double) root_list_length_sum / consolidations;
+	}
+
+	@Override
+	public long getInsertLatencyP99 ()
+	{
+		return inserts.percentile(99);
+	}
+
+	@Override
+	public long getRemoveLatencyP99 ()
+	{
+		return removes.percentile(99);
+	}
+
+	@Override
+	public long getValueChangeLatencyP99 ()
+	{
+		return value_changes.percentile(99);
+	}
+
+	@Override
+	public long getDeleteLatencyP99 ()
+	{
+		return deletes.percentile(99);
+	}
+
+	@Override
+	public long getInsertLatencyMax ()
+	{
+		return inserts.max;
+	}
+
+	@Override
+	public long getRemoveLatencyMax ()
+	{
+		return removes.max;
+	}
+
+	@Override
+	public long getValueChangeLatencyMax ()
+	{
+		return value_changes.max;
+	}
+
+	@Override
+	public long getDeleteLatencyMax ()
+	{
+		return deletes.max;
+	}
+
+	@Override
+	public long[] getInsertLatencyHistogram ()
+	{
+		return inserts.buckets.clone();
+	}
+
+	@Override
+	public long[] getRemoveLatencyHistogram ()
+	{
+		return removes.buckets.clone();
+	}
+
+	@Override
+	public long[] getValueChangeLatencyHistogram ()
+	{
+		return value_changes.buckets.clone();
+	}
+
+	@Override
+	public long[] getDeleteLatencyHistogram ()
+	{
+		return deletes.buckets.clone();
+	}
+
+	@Override
+	public long latencyPercentile (String operation, double percentile)
+	{
+		if (percentile < 0 || percentile > 100)
+		{
+			throw new IllegalArgumentException ("percentile must be in 0 .. 100: " + percentile);
+		}
+		switch (operation)
+		{
+			case "insert":		return inserts.percentile(percentile);
+			case "remove":		return removes.percentile(percentile);
+			case "valueChange":	return value_changes.percentile(percentile);
+			case "delete":		return deletes.percentile(percentile);
+			default:
+				throw new IllegalArgumentException ("unknown operation: " + operation);
+		}
+	}
+
+	/**
+	 * public void reset () - sets every counter and histogram back to 0.
+	 */
+	@Override
+	public void reset ()
+	{
+		bulk_inserts = 0;
+		bulk_inserted_values = 0;
+		melds = 0;
+		melded_nodes = 0;
+		consolidations = 0;
+		links = 0;
+		cuts = 0;
+		cascading_cuts = 0;
+		max_degree = 0;
+		last_root_list_length = 0;
+		max_root_list_length = 0;
+		root_list_length_sum = 0;
+		inserts.reset();
+		removes.reset();
+		value_changes.reset();
+		deletes.reset();
+	}
+
+	/**
+	 * LatencyHistogram - counts per power of two of nanoseconds, see HeapMetricsMXBean.
+	 */
+	static final class LatencyHistogram
+	{
+		final long[] buckets = new long[64];
+		long count;
+		long max;
+
+		void record (long nanos)
+		{
+			buckets[63 - Long.numberOfLeadingZeros(nanos | 1)]++;
+			count++;
+			if (nanos > max) max = nanos;
+		}
+
+		/**
+		 * long percentile (double percentile) - upper bound of the bucket holding the latency below
+		 * 		which 'percentile' % of the operations fall, 0 if nothing was recorded.
+		 */
+		long percentile (double percentile)
+		{
+			long target = (long) Math.ceil(count * percentile / 100);
+			long seen = 0;
+			for (int i = 0; i < buckets.length; i++)
+			{
+				seen += buckets[i];
+				if (seen >= target && seen > 0)
+				{
+					return Math.min ((2L << i) - 1, max);
+				}
+			}
+			return 0;
+		}
+
+		void reset ()
+		{
+			Arrays.fill(buckets, 0);
+			count = 0;
+			max = 0;
+		}
+	}
+}
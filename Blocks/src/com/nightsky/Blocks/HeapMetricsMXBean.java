@@ -0,0 +1,77 @@
+package com.nightsky.Blocks;
+
+/**
+ * HeapMetricsMXBean - JMX view of a HeapMetrics, see HeapMetrics.register (). Latencies are in
+ * nanoseconds; the histograms have one count per power of two, entry i counting the operations
+ * that took from 2^i to 2^(i+1)-1 ns (entry 0 also counts 0 ns).
+ */
+public interface HeapMetricsMXBean
+{
+	public long getInserts ();
+
+	public long getRemoves ();
+
+	public long getValueChanges ();
+
+	public long getDeletes ();
+
+	public long getBulkInserts ();
+
+	public long getBulkInsertedValues ();
+
+	public long getMelds ();
+
+	public long getMeldedNodes ();
+
+	public long getConsolidations ();
+
+	public long getLinks ();
+
+	public long getCuts ();
+
+	public long getCascadingCuts ();
+
+	public int getMaxDegree ();
+
+	public int getLastRootListLength ();
+
+	public int getMaxRootListLength ();
+
+	public double getMeanRootListLength ();
+
+	public long getInsertLatencyP99 ();
+
+	public long getRemoveLatencyP99 ();
+
+	public long getValueChangeLatencyP99 ();
+
+	public long getDeleteLatencyP99 ();
+
+	public long getInsertLatencyMax ();
+
+	public long getRemoveLatencyMax ();
+
+	public long getValueChangeLatencyMax ();
+
+	public long getDeleteLatencyMax ();
+
+	public long[] getInsertLatencyHistogram ();
+
+	public long[] getRemoveLatencyHistogram ();
+
+	public long[] getValueChangeLatencyHistogram ();
+
+	public long[] getDeleteLatencyHistogram ();
+
+	/**
+	 * public long latencyPercentile (String operation, double percentile) - upper bound of the
+	 * 		histogram bucket holding 'percentile' of the latencies of 'operation'.
+	 *
+	 * @param String operation - "insert", "remove", "valueChange" or "delete"
+	 * @param double percentile - 0 .. 100
+	 * @return long ns
+	 */
+	public long latencyPercentile (String operation, double percentile);
+
+	public void reset ();
+}
@@ -1,5 +1,5 @@
 package com.nightsky.Blocks;
-public class HeapNode<E> implements Node<E>
+public class HeapNode<E> implements Node<E>, HeapHandle<E>
 {
 	private E value;
 	
@@ -7,13 +7,15 @@ public class HeapNode<E> implements Node<E>
 	private HeapNode<E> next;
 	
 	private HeapNode<E> parent;
-	private DoubleLinkedList<HeapNode<E>> children;
+	private HeapNode<E> child;		// any one of the children, they form a circular list through next/previous
+	private int degree;				// number of children
 
 	public boolean deleting;
 	
-	private boolean marked;
+	private byte flags;				// MARKED | RANKED
 	
-	private boolean ranked;
+	private static final byte MARKED = 1;
+	private static final byte RANKED = 2;
 	
 	/**
 	 * public HeapNode (E val)
@@ -23,48 +25,105 @@ public class HeapNode<E> implements Node<E>
 	public HeapNode (E val) 
 	{
 		this.value = val;
-		parent = null;
-		marked = false;
-		children = new DoubleLinkedList<HeapNode<E>> ();
 	}
 	
 	public boolean isMarked ()
 	{
-		return marked;
+		return (flags & MARKED) != 0;
 	}
 	
 	public void setMarked (boolean mark)
 	{
-		marked = mark;
+		flags = (byte) (mark ? flags | MARKED : flags & ~MARKED);
 	}
 	public void setRanked (boolean r)
 	{
-		ranked = r;
+		flags = (byte) (r ? flags | RANKED : flags & ~RANKED);
 	}
 	public boolean isRanked ()
 	{
-		return ranked;
+		return (flags & RANKED) != 0;
 	}
 	
 	/**
-	 * public void addChild (HeapNode<K,V> n) - This will add a child to this nodes'
-	 * 		doubly-linked list.
+	 * public void addChild (HeapNode<E> n) - This will add 'n', which must not be in any list,
+	 * 		to the end of this node's circular list of children.
 	 * 
-	 * @param HeapNode<K,V> n
+	 * @param HeapNode<E> n
 	 */
 	public void addChild (HeapNode<E> n)
 	{
-		children.add(n);
-		n.setParent(this);
+		if (child == null)
+		{
+			child = n;
+			n.next = n;
+			n.previous = n;
+		}
+		else
+		{
+			HeapNode<E> last = child.previous;
+			last.next = n;
+			n.previous = last;
+			n.next = child;
+			child.previous = n;
+		}
+		n.parent = this;
+		degree++;
 	}
-	public DoubleLinkedList<HeapNode<E>> getChildren() {
-		return children;
+	
+	/**
+	 * public void removeChild (HeapNode<E> n) - unlinks 'n' from this node's children. 'n' is left
+	 * 		without parent and links.
+	 * 
+	 * @param HeapNode<E> n - a child of this node
+	 */
+	public void removeChild (HeapNode<E> n)
+	{
+		if (n.next == n)
+		{
+			child = null;
+		}
+		else
+		{
+			if (child == n) child = n.next;
+			n.previous.next = n.next;
+			n.next.previous = n.previous;
+		}
+		n.next = null;
+		n.previous = null;
+		n.parent = null;
+		degree--;
+	}
+	
+	/**
+	 * public HeapNode<E> getChild () - one of the children, the others are reached through getNext ().
+	 * 
+	 * @return HeapNode<E> child, or null for a leaf.
+	 */
+	public HeapNode<E> getChild ()
+	{
+		return child;
+	}
+	
+	/**
+	 * public int getDegree () - number of children.
+	 * 
+	 * @return int
+	 */
+	public int getDegree ()
+	{
+		return degree;
+	}
+	
+	/**
+	 * public void clearChildren () - forgets the children without touching them, for when they
+	 * 		have been moved elsewhere.
+	 */
+	public void clearChildren ()
+	{
+		child = null;
+		degree = 0;
 	}
-    
-    public void setChildren (DoubleLinkedList<HeapNode<E>> children)
-    {
-        this.children = children;   
-    }
 
 	@Override
 	public E getValue() {
@@ -0,0 +1,274 @@
+package com.nightsky.Blocks;
+
+import java.util.Arrays;
+
+/**
+ * IndexedFibonacciHeap - min priority queue of long ids with double priorities, that finds an entry
+ * by its id. It is a CompactFibonacciHeap plus an open-addressing table from id to heap handle, both
+ * made of primitive arrays, so callers do not keep a HashMap<Id, HeapNode> of their own and nothing
+ * is boxed:
+ *
+ * 		upsert (id, priority)	insert, or change the priority of an id that is queued
+ * 		remove (id), contains (id), priorityOf (id)
+ * 		removeTop (), topId (), topPriority ()
+ *
+ * A lower priority goes through decreaseKey () and a higher one through increaseKey (), which is
+ * lazy unless the entry is the top. int ids can be passed as they are.
+ *
+ * The table uses linear probing with backward-shift deletion, so removes leave no tombstones, and
+ * doubles when it is more than half full.
+ */
+public class IndexedFibonacciHeap
+{
+	private static final int NIL = CompactFibonacciHeap.NIL;
+
+	private final CompactFibonacciHeap heap = new CompactFibonacciHeap ();
+	private long[] id_of = new long[16];			// id of each heap handle
+
+	private long[] table_ids;						// id of each table slot ...
+	private int[] table_handles;					// ... and its handle, NIL for an empty slot
+	private int table_mask;
+	private int table_shift;						// 64 - log2 (table length), for the hash
+
+	public IndexedFibonacciHeap ()
+	{
+		this (16);
+	}
+
+	/**
+	 * public IndexedFibonacciHeap (int expected_size) - sizes the id table for 'expected_size' entries.
+	 *
+	 * @param int expected_size
+	 */
+	public IndexedFibonacciHeap (int expected_size)
+	{
+		if (expected_size < 0)
+		{
+			throw new IllegalArgumentException ("expected_size must not be negative: " + expected_size);
+		}
+		int length = Integer.highestOneBit(Math.max (expected_size, 8) * 2 - 1) * 2;
+		allocateTable (length);
+	}
+
+	/**
+	 * public boolean upsert (long id, double priority) - queues 'id' with 'priority', or gives it the new
+	 * 		priority if it is queued already.
+	 *
+	 * @param long id
+	 * @param double priority
+	 * @return boolean - 'true' if 'id' was not queued before.
+	 */
+	public boolean upsert (long id, double priority)
+	{
+		int slot = find (id);
+		int h = table_handles[slot];
+		if (h == NIL)
+		{
+			h = insert (id, priority);
+			table_ids[slot] = id;
+			table_handles[slot] = h;
+			if (heap.size() > (table_mask + 1) >>> 1)
+			{
+				allocateTable ((table_mask + 1) * 2);
+			}
+			return true;
+		}
+		double old = heap.key(h);
+		if (priority < old)
+		{
+			heap.decreaseKey(h, priority);
+		}
+		else if (priority > old)
+		{
+			heap.increaseKey(h, priority);
+		}
+		return false;
+	}
+
+	/**
+	 * public boolean remove (long id) - takes 'id' out of the queue.
+	 *
+	 * @param long id
+	 * @return boolean - 'true' if it was queued.
+	 */
+	public boolean remove (long id)
+	{
+		int slot = find (id);
+		int h = table_handles[slot];
+		if (h == NIL)
+		{
+			return false;
+		}
+		heap.delete(h);
+		vacate (slot);
+		return true;
+	}
+
+	/**
+	 * public boolean contains (long id)
+	 *
+	 * @param long id
+	 * @return boolean - 'true' if 'id' is queued.
+	 */
+	public boolean contains (long id)
+	{
+		return table_handles[find (id)] != NIL;
+	}
+
+	/**
+	 * public double priorityOf (long id)
+	 *
+	 * @param long id
+	 * @return double priority of 'id', or NaN if it is not queued.
+	 */
+	public double priorityOf (long id)
+	{
+		int h = table_handles[find (id)];
+		return (h == NIL) ? Double.NaN : heap.key(h);
+	}
+
+	/**
+	 * public long topId () - id with the lowest priority.
+	 *
+	 * @return long id
+	 * @throws IllegalStateException if the queue is empty
+	 */
+	public long topId ()
+	{
+		return id_of[top ()];
+	}
+
+	/**
+	 * public double topPriority () - the lowest priority.
+	 *
+	 * @return double
+	 * @throws IllegalStateException if the queue is empty
+	 */
+	public double topPriority ()
+	{
+		return heap.key(top ());
+	}
+
+	/**
+	 * public long removeTop () - takes the id with the lowest priority out of the queue.
+	 *
+	 * @return long id
+	 * @throws IllegalStateException if the queue is empty
+	 */
+	public long removeTop ()
+	{
+		long id = id_of[top ()];
+		heap.remove();
+		vacate (find (id));
+		return id;
+	}
+
+	public int size ()
+	{
+		return heap.size();
+	}
+
+	public boolean isEmpty ()
+	{
+		return heap.size() == 0;
+	}
+
+	/**
+	 * public void clear () - empties the queue, keeping its storage.
+	 */
+	public void clear ()
+	{
+		heap.clear();
+		Arrays.fill(table_handles, NIL);
+	}
+
+	private int top ()
+	{
+		int h = heap.getTop();
+		if (h == NIL)
+		{
+			throw new IllegalStateException ("queue is empty");
+		}
+		return h;
+	}
+
+	private int insert (long id, double priority)
+	{
+		int h = heap.insert(priority);
+		if (h >= id_of.length)
+		{
+			id_of = Arrays.copyOf(id_of, Math.max (h + 1, id_of.length * 2));
+		}
+		id_of[h] = id;
+		return h;
+	}
+
+	////////////////////////////////////////////////
+	//
+	//	id table
+	//
+	/**
+	 * private int find (long id) - slot holding 'id', or the empty slot where it would go.
+	 */
+	private int find (long id)
+	{
+		int slot = hash (id);
+		while (table_handles[slot] != NIL && table_ids[slot] != id)
+		{
+			slot = (slot + 1) & table_mask;
+		}
+		return slot;
+	}
+
+	/**
+	 * private void vacate (int slot) - empties 'slot' and moves back the entries after it that would
+	 * 		no longer be found, so that no probe sequence has a gap.
+	 */
+	private void vacate (int slot)
+	{
+		int gap = slot;
+		int next = (gap + 1) & table_mask;
+		while (table_handles[next] != NIL)
+		{
+			int home = hash (table_ids[next]);
+			// move 'next' into the gap unless its home lies cyclically in (gap, next]
+			if (((next - home) & table_mask) >= ((next - gap) & table_mask))
+			{
+				table_ids[gap] = table_ids[next];
+				table_handles[gap] = table_handles[next];
+				gap = next;
+			}
+			next = (next + 1) & table_mask;
+		}
+		table_handles[gap] = NIL;
+	}
+
+	private int hash (long id)
+	{
+		return (int) ((id * 0x9E3779B97F4A7C15L) >>> table_shift);
+	}
+
+	private void allocateTable (int length)
+	{
+		long[] ids_old = table_ids;
+		int[] handles_old = table_handles;
+		table_ids = new long[length];
+		table_handles = new int[length];
+		Arrays.fill(table_handles, NIL);
+		table_mask = length - 1;
+		table_shift = 64 - Integer.numberOfTrailingZeros(length);
+		if (handles_old == null)
+		{
+			return;
+		}
+		for (int i = 0; i < handles_old.length; i++)
+		{
+			if (handles_old[i] != NIL)
+			{
+				int slot = find (ids_old[i]);
+				table_ids[slot] = ids_old[i];
+				table_handles[slot] = handles_old[i];
+			}
+		}
+	}
+}
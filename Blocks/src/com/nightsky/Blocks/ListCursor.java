@@ -0,0 +1,77 @@
+package com.nightsky.Blocks;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * ListCursor<N> - cursor over the nodes of a DoubleLinkedList, owned by the caller. Unlike
+ * DoubleLinkedList.begin ()/next (), which keep their position in the list, each cursor has its own,
+ * so nested loops and several readers can walk the same list at once. reset () points the cursor at
+ * the head again (of the same or another list), so one cursor serves any number of loops without
+ * allocating.
+ *
+ * 		cursor.reset(list);
+ * 		while (cursor.hasNext()) { N n = cursor.next(); ... }
+ *
+ * The node returned by next () may be removed from the list; nothing else may change while a cursor
+ * walks it.
+ */
+public class ListCursor<N extends Node<?>> implements Iterator<N>
+{
+	private DoubleLinkedList<N> list;
+	private N current;
+	private int remaining;
+
+	public ListCursor ()
+	{
+	}
+
+	public ListCursor (DoubleLinkedList<N> list)
+	{
+		reset (list);
+	}
+
+	/**
+	 * public ListCursor<N> reset (DoubleLinkedList<N> list) - moves the cursor to the head of 'list'.
+	 *
+	 * @param DoubleLinkedList<N> list
+	 * @return ListCursor<N> this cursor.
+	 */
+	public ListCursor<N> reset (DoubleLinkedList<N> list)
+	{
+		this.list = list;
+		current = list.getPointer();
+		remaining = list.size();
+		return this;
+	}
+
+	/**
+	 * public ListCursor<N> reset () - moves the cursor back to the head of its list.
+	 *
+	 * @return ListCursor<N> this cursor.
+	 */
+	public ListCursor<N> reset ()
+	{
+		return reset (list);
+	}
+
+	@Override
+	public boolean hasNext ()
+	{
+		return remaining > 0;
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public N next ()
+	{
+		if (remaining == 0)
+		{
+			throw new NoSuchElementException ();
+		}
+		N n = current;
+		current = (N) n.getNext();
+		remaining--;
+		return n;
+	}
+}
@@ -0,0 +1,332 @@
+package com.nightsky.Blocks;
+
+/**
+ * LongKeyFibonacciHeap<E> - a min Fibonacci heap whose priorities are primitive longs kept
+ * inline in the nodes. Keys are compared directly, nothing is boxed and no method allocates
+ * except insert (long, E), which creates the node it returns.
+ *
+ * The root list is a circular list threaded through the nodes themselves and 'top' is its entry point.
+ */
+public class LongKeyFibonacciHeap<E>
+{
+	private LongKeyHeapNode<E> top;			// Pointer to the smallest key, also the entry into the root list
+	private int num_roots;
+	private int num_nodes;
+
+	private LongKeyHeapNode<E>[] degrees;		// degrees[] used during consolidation, kept between removes
+
+	@SuppressWarnings("unchecked")
+	public LongKeyFibonacciHeap ()
+	{
+		top = null;
+		degrees = (LongKeyHeapNode<E>[]) new LongKeyHeapNode<?>[16];
+	}
+
+	/**
+	 * public LongKeyHeapNode<E> insert (long key) - inserts a node without a payload.
+	 *
+	 * @param long key
+	 * @return LongKeyHeapNode<E> pointer to node that was inserted.
+	 */
+	public LongKeyHeapNode<E> insert (long key)
+	{
+		return insert (key, null);
+	}
+
+	/**
+	 * public LongKeyHeapNode<E> insert (long key, E value) - new node will be added to the root list.
+	 * 		Like FibonacciHeap, inserts are lazy and are only consolidated by remove ().
+	 *
+	 * @param long key
+	 * @param E value
+	 * @return LongKeyHeapNode<E> pointer to node that was inserted.
+	 */
+	public LongKeyHeapNode<E> insert (long key, E value)
+	{
+		LongKeyHeapNode<E> n = new LongKeyHeapNode<E> (key, value);
+		insert (n);
+		return n;
+	}
+
+	/**
+	 * public void insert (LongKeyHeapNode<E> n) - inserts a node that is not part of any heap, e.g. a
+	 * 		node returned by remove (). Reusing nodes this way makes insert allocation-free.
+	 *
+	 * @param LongKeyHeapNode<E> n
+	 */
+	public void insert (LongKeyHeapNode<E> n)
+	{
+		n.parent = null;
+		n.marked = false;
+		addRoot (n);
+		if (n.key < top.key)
+		{
+			top = n;
+		}
+		num_nodes++;
+	}
+
+	/**
+	 * public LongKeyHeapNode<E> getTop () - returns the node with the smallest key, or null if the heap is empty.
+	 *
+	 * @return LongKeyHeapNode<E>
+	 */
+	public LongKeyHeapNode<E> getTop ()
+	{
+		return top;
+	}
+
+	/**
+	 * public LongKeyHeapNode<E> remove () - removes and returns the node with the smallest key.
+	 *
+	 * @return LongKeyHeapNode<E> top, or null if the heap is empty.
+	 */
+	public LongKeyHeapNode<E> remove ()
+	{
+		LongKeyHeapNode<E> z = top;
+		if (z == null)
+		{
+			return null;
+		}
+
+		// Promote the children of 'top' to the root list
+		LongKeyHeapNode<E> first = z.child;
+		if (first != null)
+		{
+			LongKeyHeapNode<E> c = first;
+			do
+			{
+				c.parent = null;
+				c.marked = false;
+				c = c.next;
+			} while (c != first);
+
+			LongKeyHeapNode<E> last = first.previous;
+			LongKeyHeapNode<E> z_next = z.next;
+			z.next = first;
+			first.previous = z;
+			last.next = z_next;
+			z_next.previous = last;
+			num_roots += z.degree;
+
+			z.child = null;
+			z.degree = 0;
+		}
+
+		// Unlink 'top' from the root list
+		if (z.next == z)
+		{
+			top = null;
+		}
+		else
+		{
+			z.previous.next = z.next;
+			z.next.previous = z.previous;
+			top = z.next;
+		}
+		z.next = null;
+		z.previous = null;
+		num_roots--;
+		num_nodes--;
+
+		if (top != null)
+		{
+			consolidate ();
+		}
+		return z;
+	}
+
+	/**
+	 * public void decreaseKey (LongKeyHeapNode<E> n, long key) - lowers the key of 'n', cutting it
+	 * 		from its parent (and cascading) if it now beats the parent.
+	 *
+	 * @param LongKeyHeapNode<E> n - node which is in this heap
+	 * @param long key - new key, must not be larger than the current key
+	 */
+	public void decreaseKey (LongKeyHeapNode<E> n, long key)
+	{
+		if (key > n.key)
+		{
+			throw new IllegalArgumentException ("decreaseKey() new key " + key + " is larger than current key " + n.key);
+		}
+		n.key = key;
+		LongKeyHeapNode<E> p = n.parent;
+		if (p != null && key < p.key)
+		{
+			cut (n, p);
+			cascadingCut (p);
+		}
+		if (key < top.key)
+		{
+			top = n;
+		}
+	}
+
+	/**
+	 * public int size () - returns the number of nodes in the whole heap.
+	 *
+	 * @return int - size of the heap.
+	 */
+	public int size ()
+	{
+		return num_nodes;
+	}
+
+	/**
+	 * private void consolidate () - links roots of equal degree until every root has a different degree,
+	 * 		then points 'top' at the smallest root. degrees[] is indexed by degree, so each root finds
+	 * 		its partner directly and the table is left empty for the next remove ().
+	 */
+	private void consolidate ()
+	{
+		int max_degree = 0;
+		LongKeyHeapNode<E> w = top;
+		for (int i = num_roots; i > 0; i--)
+		{
+			LongKeyHeapNode<E> next = w.next;
+			LongKeyHeapNode<E> x = w;
+			int d = x.degree;
+			while (true)
+			{
+				if (d >= degrees.length)
+				{
+					growDegrees (d);
+				}
+				LongKeyHeapNode<E> y = degrees[d];
+				if (y == null)
+				{
+					break;
+				}
+				degrees[d] = null;
+				if (y.key < x.key)
+				{
+					LongKeyHeapNode<E> t = x;
+					x = y;
+					y = t;
+				}
+				link (y, x);
+				d++;
+			}
+			degrees[d] = x;
+			if (d > max_degree)
+			{
+				max_degree = d;
+			}
+			w = next;
+		}
+
+		top = null;
+		for (int d = 0; d <= max_degree; d++)
+		{
+			LongKeyHeapNode<E> x = degrees[d];
+			if (x != null)
+			{
+				degrees[d] = null;
+				if (top == null || x.key < top.key)
+				{
+					top = x;
+				}
+			}
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private void growDegrees (int d)
+	{
+		LongKeyHeapNode<E>[] degrees_new = (LongKeyHeapNode<E>[]) new LongKeyHeapNode<?>[Math.max (d + 1, 2 * degrees.length)];
+		System.arraycopy (degrees, 0, degrees_new, 0, degrees.length);
+		degrees = degrees_new;
+	}
+
+	/**
+	 * private void link (LongKeyHeapNode<E> y, LongKeyHeapNode<E> x) - removes root 'y' from the root
+	 * 		list and makes it a child of root 'x'.
+	 */
+	private void link (LongKeyHeapNode<E> y, LongKeyHeapNode<E> x)
+	{
+		y.previous.next = y.next;
+		y.next.previous = y.previous;
+		num_roots--;
+
+		y.parent = x;
+		y.marked = false;
+		LongKeyHeapNode<E> c = x.child;
+		if (c == null)
+		{
+			y.next = y;
+			y.previous = y;
+			x.child = y;
+		}
+		else
+		{
+			y.previous = c;
+			y.next = c.next;
+			c.next.previous = y;
+			c.next = y;
+		}
+		x.degree++;
+	}
+
+	/**
+	 * private void cut (LongKeyHeapNode<E> n, LongKeyHeapNode<E> p) - removes 'n' from the children
+	 * 		of 'p' and adds it to the root list.
+	 */
+	private void cut (LongKeyHeapNode<E> n, LongKeyHeapNode<E> p)
+	{
+		if (n.next == n)
+		{
+			p.child = null;
+		}
+		else
+		{
+			n.previous.next = n.next;
+			n.next.previous = n.previous;
+			if (p.child == n)
+			{
+				p.child = n.next;
+			}
+		}
+		p.degree--;
+		n.parent = null;
+		n.marked = false;
+		addRoot (n);
+	}
+
+	/**
+	 * private void cascadingCut (LongKeyHeapNode<E> p) - walks up from 'p' cutting marked parents,
+	 * 		and marks the first unmarked non-root it meets.
+	 */
+	private void cascadingCut (LongKeyHeapNode<E> p)
+	{
+		LongKeyHeapNode<E> pp = p.parent;
+		while (pp != null)
+		{
+			if (!p.marked)
+			{
+				p.marked = true;
+				return;
+			}
+			cut (p, pp);
+			p = pp;
+			pp = p.parent;
+		}
+	}
+
+	private void addRoot (LongKeyHeapNode<E> n)
+	{
+		if (top == null)
+		{
+			n.next = n;
+			n.previous = n;
+			top = n;
+		}
+		else
+		{
+			n.previous = top;
+			n.next = top.next;
+			top.next.previous = n;
+			top.next = n;
+		}
+		num_roots++;
+	}
+}
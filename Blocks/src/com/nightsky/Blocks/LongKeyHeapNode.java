@@ -0,0 +1,98 @@
+package com.nightsky.Blocks;
+
+/**
+ * LongKeyHeapNode<E> - node used by LongKeyFibonacciHeap. The priority is stored inline as a
+ * primitive long and the value is an optional payload. Children hang off an intrusive first-child
+ * pointer and share the next/previous links, so the node is the only allocation per entry.
+ */
+public final class LongKeyHeapNode<E> implements Node<E>
+{
+	long key;
+	private E value;
+
+	LongKeyHeapNode<E> previous;
+	LongKeyHeapNode<E> next;
+
+	LongKeyHeapNode<E> parent;
+	LongKeyHeapNode<E> child;		// any one of the children, they form a circular list
+	int degree;						// number of children
+
+	boolean marked;
+
+	/**
+	 * public LongKeyHeapNode (long key, E val)
+	 *
+	 * @param long key - priority of this node
+	 * @param E val - payload, may be null
+	 */
+	public LongKeyHeapNode (long key, E val)
+	{
+		this.key = key;
+		this.value = val;
+	}
+
+	public long getKey ()
+	{
+		return key;
+	}
+
+	public int getDegree ()
+	{
+		return degree;
+	}
+
+	public boolean isMarked ()
+	{
+		return marked;
+	}
+
+	public LongKeyHeapNode<E> getChild ()
+	{
+		return child;
+	}
+
+	@Override
+	public E getValue() {
+		return value;
+	}
+
+	@Override
+	public void setValue(E val) {
+		this.value = val;
+	}
+
+	@Override
+	public LongKeyHeapNode<E> getNext() {
+		return next;
+	}
+
+	@Override
+	public void setNext(Node<E> n) {
+		this.next = (LongKeyHeapNode<E>)n;
+	}
+
+	@Override
+	public LongKeyHeapNode<E> getPrevious() {
+		return previous;
+	}
+
+	@Override
+	public void setPrevious(Node<E> n) {
+		this.previous = (LongKeyHeapNode<E>)n;
+	}
+
+	@Override
+	public LongKeyHeapNode<E> getParent() {
+		return parent;
+	}
+
+	@Override
+	public void setParent(Node<E> n) {
+		this.parent = (LongKeyHeapNode<E>)n;
+	}
+
+	@Override
+	public LongKeyHeapNode<E> copy() {
+		return new LongKeyHeapNode<E> (key, value);
+	}
+}
@@ -0,0 +1,340 @@
+package com.nightsky.Blocks;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * MappedArray<E> - expanding array of fixed-width records kept in a memory-mapped file, for tables
+ * larger than the heap or than RAM. It has the semantics of Array: set () past the end grows the
+ * array, remove () leaves a hole, size () counts the values and begin/hasNext/next only visits the
+ * slots that hold a value.
+ *
+ * Values are converted by a SnapshotCodec with a fixed size. A record is a presence byte followed by
+ * the value, and records are mapped with FileChannel.map in segments of up to 2^20 records; a segment
+ * is mapped when a record in it is first used, and mapping past the end extends the file. Reading and
+ * writing go straight to the mapping, and which pages stay in memory is left to the OS.
+ *
+ * 		file		MAGIC (int), VERSION (short), record size (int), size (long), padded to HEADER bytes
+ * 		records		length * [present (byte), value]
+ *
+ * Writes reach the file when the OS writes the pages back; force () writes them now. Opening an
+ * existing file continues where it was left. The mappings are released when they are garbage
+ * collected, not by close ().
+ */
+public class MappedArray<E> implements Iterate<E>, Closeable
+{
+	static final int MAGIC = 0x424C4B4D;		// "BLKM"
+	static final short VERSION = 1;
+	static final int HEADER = 4096;				// records start on a page boundary
+
+	private static final int RECORD_SIZE_OFFSET = 6;
+	private static final int SIZE_OFFSET = 10;
+	private static final int MAX_SEGMENT_BYTES = 1 << 30;
+
+	private final FileChannel channel;
+	private final SnapshotCodec<E> codec;
+	private final int record_bytes;
+	private final int segment_shift;
+	private final int segment_mask;
+	private final MappedByteBuffer header;
+
+	private MappedByteBuffer[] segments = new MappedByteBuffer[1];
+	private int length;
+	private int size;
+
+	/**
+	 * public MappedArray (Path file, SnapshotCodec<E> codec) - opens 'file', or creates it if it does
+	 * 		not exist.
+	 *
+	 * @param Path file
+	 * @param SnapshotCodec<E> codec - must have a fixed size
+	 * @throws IOException if 'file' is not a MappedArray of records of this size
+	 */
+	public MappedArray (Path file, SnapshotCodec<E> codec) throws IOException
+	{
+		int value_bytes = codec.fixedSize();
+		if (value_bytes < 0 || value_bytes >= MAX_SEGMENT_BYTES)
+		{
+			throw new IllegalArgumentException ("MappedArray needs a codec with a fixed size, " + value_bytes + " given.");
+		}
+		this.codec = codec;
+		record_bytes = value_bytes + 1;
+		int shift = 20;
+		while (((long) record_bytes << shift) > MAX_SEGMENT_BYTES) shift--;
+		segment_shift = shift;
+		segment_mask = (1 << shift) - 1;
+
+		channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+		try
+		{
+			long file_bytes = channel.size();
+			boolean created = file_bytes == 0;
+			if (!created && file_bytes < HEADER)
+			{
+				// mapping the header would extend the file, check before touching it
+				throw new IOException ("not a MappedArray file: " + file);
+			}
+			header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER);
+			if (created)
+			{
+				header.putInt(0, MAGIC);
+				header.putShort(4, VERSION);
+				header.putInt(RECORD_SIZE_OFFSET, value_bytes);
+				header.putLong(SIZE_OFFSET, 0);
+			}
+			else if (header.getInt(0) != MAGIC || header.getShort(4) != VERSION)
+			{
+				throw new IOException ("not a MappedArray file: " + file);
+			}
+			else if (header.getInt(RECORD_SIZE_OFFSET) != value_bytes)
+			{
+				throw new IOException ("records of " + header.getInt(RECORD_SIZE_OFFSET) + " bytes in " + file + ", codec has " + value_bytes);
+			}
+			size = (int) header.getLong(SIZE_OFFSET);
+			length = (int) Math.min ((channel.size() - HEADER) / record_bytes, Integer.MAX_VALUE);
+		}
+		catch (IOException | RuntimeException e)
+		{
+			channel.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * public E get (int index)
+	 *
+	 * @param int index
+	 * @return E value, or null if slot 'index' is empty.
+	 */
+	public E get (int index)
+	{
+		if (index < 0 || index >= length)
+		{
+			return null;
+		}
+		MappedByteBuffer segment = segment (index);
+		int offset = (index & segment_mask) * record_bytes;
+		if (segment.get(offset) == 0)
+		{
+			return null;
+		}
+		segment.position(offset + 1);
+		return codec.read(segment, record_bytes - 1);
+	}
+
+	/**
+	 * public void set (int index, E value) - this is an expanding 'set'. If the index is past the end
+	 * 		of the file, the segment holding it is mapped, which grows the file to the end of the segment.
+	 *
+	 * @param int index
+	 * @param E value - not null, use remove () to empty a slot
+	 */
+	public void set (int index, E value)
+	{
+		if (index < 0)
+		{
+			throw new IndexOutOfBoundsException ("index " + index);
+		}
+		if (value == null)
+		{
+			throw new IllegalArgumentException ("Use remove() to delete items. You are attempting to set index " + index + " to null.");
+		}
+		MappedByteBuffer segment = segment (index);
+		int offset = (index & segment_mask) * record_bytes;
+		if (segment.get(offset) == 0)
+		{
+			segment.put(offset, (byte) 1);
+			header.putLong(SIZE_OFFSET, ++size);
+		}
+		segment.position(offset + 1);
+		codec.write(segment, value);
+	}
+
+	/**
+	 * public void remove (int index) - empties slot 'index', leaving a hole. Nothing happens if it
+	 * 		is empty already.
+	 *
+	 * @param int index
+	 */
+	public void remove (int index)
+	{
+		if (index < 0 || index >= length)
+		{
+			return;
+		}
+		MappedByteBuffer segment = segment (index);
+		int offset = (index & segment_mask) * record_bytes;
+		if (segment.get(offset) != 0)
+		{
+			segment.put(offset, (byte) 0);
+			header.putLong(SIZE_OFFSET, --size);
+		}
+	}
+
+	/**
+	 * public boolean contains (int index) - 'true' if slot 'index' holds a value.
+	 *
+	 * @param int index
+	 * @return boolean
+	 */
+	public boolean contains (int index)
+	{
+		return index >= 0 && index < length && segment (index).get((index & segment_mask) * record_bytes) != 0;
+	}
+
+	/**
+	 * public int nextSetIndex (int from) - first index at or after 'from' that holds a value. Every
+	 * 		presence byte on the way is read, so walking a sparse file pages in its holes.
+	 *
+	 * @param int from
+	 * @return int index, or -1 if there is none.
+	 */
+	public int nextSetIndex (int from)
+	{
+		int index = Math.max (from, 0);
+		while (index < length)
+		{
+			MappedByteBuffer segment = segment (index);
+			int end = (int) Math.min (length, ((long) (index >>> segment_shift) + 1) << segment_shift);
+			for (int offset = (index & segment_mask) * record_bytes; index < end; index++, offset += record_bytes)
+			{
+				if (segment.get(offset) != 0)
+				{
+					return index;
+				}
+			}
+		}
+		return -1;
+	}
+
+	////////////////////////////////////////////////
+	//
+	//	Iterator-less iterations - only the slots holding a value are visited
+	//
+	private int pointer = -1;
+	@Override
+	public void begin ()
+	{
+		pointer = nextSetIndex (0);
+	}
+	@Override
+	public E next ()
+	{
+		E value = get (pointer);
+		pointer = nextSetIndex (pointer + 1);
+		return value;
+	}
+	@Override
+	public boolean hasNext ()
+	{
+		return pointer >= 0;
+	}
+
+	/**
+	 * public int length () - number of records the file holds, NOT the number of values.
+	 *
+	 * @return int
+	 */
+	public int length ()
+	{
+		return length;
+	}
+
+	/**
+	 * public int size () - number of values in the array.
+	 *
+	 * @return int
+	 */
+	@Override
+	public int size ()
+	{
+		return size;
+	}
+
+	/**
+	 * public void clear () - empties every slot. The file keeps its length.
+	 */
+	@Override
+	public void clear ()
+	{
+		for (int i = nextSetIndex (0); i >= 0; i = nextSetIndex (i + 1))
+		{
+			segment (i).put((i & segment_mask) * record_bytes, (byte) 0);
+		}
+		size = 0;
+		header.putLong(SIZE_OFFSET, 0);
+	}
+
+	/**
+	 * public void force () - writes the changed pages of every mapped segment and the header to the
+	 * 		device, so they survive a crash of the machine.
+	 */
+	public void force ()
+	{
+		for (MappedByteBuffer segment : segments)
+		{
+			if (segment != null) segment.force();
+		}
+		header.force();
+	}
+
+	/**
+	 * public void close () - force ()s and closes the file.
+	 *
+	 * @throws IOException
+	 */
+	@Override
+	public void close () throws IOException
+	{
+		try
+		{
+			force ();
+		}
+		finally
+		{
+			Arrays.fill(segments, null);
+			channel.close();
+		}
+	}
+
+	/**
+	 * private MappedByteBuffer segment (int index) - segment holding record 'index', mapped if needed.
+	 */
+	private MappedByteBuffer segment (int index)
+	{
+		int s = index >>> segment_shift;
+		if (s >= segments.length)
+		{
+			segments = Arrays.copyOf(segments, Math.max (s + 1, segments.length + (segments.length >> 1)));
+		}
+		MappedByteBuffer segment = segments[s];
+		if (segment == null)
+		{
+			segment = map (s);
+			segments[s] = segment;
+		}
+		if (index >= length)
+		{
+			length = (int) Math.min (((long) s + 1) << segment_shift, Integer.MAX_VALUE);
+		}
+		return segment;
+	}
+
+	private MappedByteBuffer map (int s)
+	{
+		long segment_bytes = (long) record_bytes << segment_shift;
+		try
+		{
+			return channel.map(FileChannel.MapMode.READ_WRITE, HEADER + s * segment_bytes, segment_bytes);
+		}
+		catch (IOException e)
+		{
+			throw new IllegalStateException ("cannot map segment " + s + " of the file", e);
+		}
+	}
+}
@@ -0,0 +1,72 @@
+package com.nightsky.Blocks;
+
+import java.util.Comparator;
+
+/**
+ * MaxFibonacciHeap<E> - ready-made FibonacciHeap whose top is the largest value, as ordered by a
+ * Comparator or by the values' natural ordering. Values are compared directly, so there is nothing
+ * to implement.
+ */
+public class MaxFibonacciHeap<E> extends FibonacciHeap<E>
+{
+	private final Comparator<? super E> comparator;
+
+	/**
+	 * public MaxFibonacciHeap () - values must implement Comparable.
+	 */
+	public MaxFibonacciHeap ()
+	{
+		this (NaturalOrder.<E>get(), false);
+	}
+
+	/**
+	 * public MaxFibonacciHeap (Comparator<? super E> comparator)
+	 *
+	 * @param Comparator<? super E> comparator
+	 */
+	public MaxFibonacciHeap (Comparator<? super E> comparator)
+	{
+		this (comparator, false);
+	}
+
+	/**
+	 * public MaxFibonacciHeap (Comparator<? super E> comparator, boolean debug_mode)
+	 *
+	 * @param Comparator<? super E> comparator
+	 * @param boolean debug_mode - 'true' to start with a HeapMetrics attached, see getMetrics ()
+	 */
+	public MaxFibonacciHeap (Comparator<? super E> comparator, boolean debug_mode)
+	{
+		super ("max", debug_mode);
+		this.comparator = comparator;
+	}
+
+	public Comparator<? super E> getComparator ()
+	{
+		return comparator;
+	}
+
+	@Override
+	HeapNode<E> compare (HeapNode<E> n1, HeapNode<E> n2)
+	{
+		return (comparator.compare(n1.getValue(), n2.getValue()) >= 0) ? n1 : n2;
+	}
+
+	@Override
+	int order (E value, HeapNode<E> n)
+	{
+		return comparator.compare(n.getValue(), value);
+	}
+
+	@Override
+	void printNodeValue (HeapNode<E> node)
+	{
+		System.out.print(node.getValue());
+	}
+
+	@Override
+	void printNodeKey (HeapNode<E> node)
+	{
+		System.out.print("#" + Integer.toHexString(System.identityHashCode(node)) + ":");
+	}
+}
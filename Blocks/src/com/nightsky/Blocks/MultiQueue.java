@@ -0,0 +1,178 @@
+package com.nightsky.Blocks;
+
+import java.util.Comparator;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * MultiQueue<E> - relaxed concurrent priority queue made of c * threads MinFibonacciHeap shards, each
+ * behind its own lock. Threads only ever tryLock () a shard and pick another one if it is busy, so
+ * they rarely wait on each other.
+ *
+ * 		insert		goes to a random shard
+ * 		remove		peeks at the tops of two random shards and removes from the better one
+ *
+ * remove () does not always return the best value in the queue, only one that is close to it. The
+ * expected rank error grows with the number of shards, which is why it is set per thread with 'c'
+ * (c = 2 is the usual choice). remove () only returns null if every shard was empty when it looked.
+ */
+public class MultiQueue<E>
+{
+	private static final int TRIES = 8;	// failed two-choice attempts before remove () scans every shard
+
+	private final MinFibonacciHeap<E>[] shards;
+	private final ReentrantLock[] locks;
+	private final Comparator<? super E> comparator;
+
+	/**
+	 * public MultiQueue (int threads, int c) - values must implement Comparable.
+	 *
+	 * @param int threads - number of threads expected to use the queue
+	 * @param int c - shards per thread
+	 */
+	public MultiQueue (int threads, int c)
+	{
+		this (NaturalOrder.<E>get(), threads, c);
+	}
+
+	/**
+	 * public MultiQueue (Comparator<? super E> comparator, int threads, int c)
+	 *
+	 * @param Comparator<? super E> comparator - remove () takes (approximately) the smallest value
+	 * @param int threads - number of threads expected to use the queue
+	 * @param int c - shards per thread
+	 */
+	public MultiQueue (Comparator<? super E> comparator, int threads, int c)
+	{
+		int n = Math.max (2, threads * c);
+		this.comparator = comparator;
+		@SuppressWarnings("unchecked")
+		MinFibonacciHeap<E>[] heaps = (MinFibonacciHeap<E>[]) new MinFibonacciHeap<?>[n];
+		shards = heaps;
+		locks = new ReentrantLock[n];
+		for (int i = 0; i < n; i++)
+		{
+			shards[i] = new MinFibonacciHeap<E> (comparator);
+			locks[i] = new ReentrantLock ();
+		}
+	}
+
+	/**
+	 * public void insert (E value) - inserts 'value' into a random shard that is not locked.
+	 *
+	 * @param E value
+	 */
+	public void insert (E value)
+	{
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		while (true)
+		{
+			int i = random.nextInt(shards.length);
+			if (locks[i].tryLock())
+			{
+				try
+				{
+					shards[i].insert(value);
+					return;
+				}
+				finally
+				{
+					locks[i].unlock();
+				}
+			}
+		}
+	}
+
+	/**
+	 * public E remove () - removes a value close to the smallest one, see the class comment.
+	 *
+	 * @return E value, or null if the queue is empty.
+	 */
+	public E remove ()
+	{
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		for (int attempt = 0; attempt < TRIES; attempt++)
+		{
+			int i = random.nextInt(shards.length);
+			int j = random.nextInt(shards.length - 1);
+			if (j >= i) j++;
+
+			// The tops are read without the locks; they only steer the choice and
+			// the shard is checked again once it is locked
+			E vi = peek (i);
+			E vj = peek (j);
+			if (vi == null && vj == null)
+			{
+				continue;
+			}
+			int k = (vj == null || (vi != null && comparator.compare(vi, vj) <= 0)) ? i : j;
+			if (locks[k].tryLock())
+			{
+				try
+				{
+					HeapNode<E> top = shards[k].remove();
+					if (top != null)
+					{
+						return top.getValue();
+					}
+				}
+				finally
+				{
+					locks[k].unlock();
+				}
+			}
+		}
+
+		// The queue looks empty or busy, visit every shard before giving up
+		int start = random.nextInt(shards.length);
+		for (int s = 0; s < shards.length; s++)
+		{
+			int k = (start + s) % shards.length;
+			locks[k].lock();
+			try
+			{
+				HeapNode<E> top = shards[k].remove();
+				if (top != null)
+				{
+					return top.getValue();
+				}
+			}
+			finally
+			{
+				locks[k].unlock();
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * public int size () - sum of the shard sizes. Not a snapshot, shards change while they are counted.
+	 *
+	 * @return int
+	 */
+	public int size ()
+	{
+		int size = 0;
+		for (int k = 0; k < shards.length; k++)
+		{
+			size += shards[k].size();
+		}
+		return size;
+	}
+
+	/**
+	 * public int shards () - number of shards.
+	 *
+	 * @return int
+	 */
+	public int shards ()
+	{
+		return shards.length;
+	}
+
+	private E peek (int k)
+	{
+		HeapNode<E> top = shards[k].getTop();
+		return (top == null) ? null : top.getValue();
+	}
+}
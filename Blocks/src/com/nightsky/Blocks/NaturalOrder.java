@@ -0,0 +1,31 @@
+package com.nightsky.Blocks;
+
+import java.util.Comparator;
+
+/**
+ * NaturalOrder<E> - Comparator for values that implement Comparable, used when a heap is created
+ * without a Comparator.
+ */
+final class NaturalOrder<E> implements Comparator<E>
+{
+	@SuppressWarnings("rawtypes")
+	static final NaturalOrder INSTANCE = new NaturalOrder ();
+
+	private NaturalOrder ()
+	{
+
+	}
+
+	@SuppressWarnings("unchecked")
+	static <E> Comparator<E> get ()
+	{
+		return (Comparator<E>) INSTANCE;
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public int compare (E e1, E e2)
+	{
+		return ((Comparable<? super E>) e1).compareTo(e2);
+	}
+}
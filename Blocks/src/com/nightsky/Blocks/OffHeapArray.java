@@ -0,0 +1,276 @@
+package com.nightsky.Blocks;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+/**
+ * OffHeapArray - expanding array of 8-byte slots kept outside the Java heap, for numeric tables too
+ * large to keep in a long[] or double[] (more than 2^31 slots, or gigabytes the collector should
+ * not have to copy). A slot is read and written as a long or as a double; indices are longs.
+ *
+ * The slots live in direct ByteBuffer segments of 2^20 slots (8 MB), each followed by the occupancy
+ * bitmap of its slots. A segment is only allocated when a slot in it is first set, so a sparse table
+ * costs memory for the segments it touches. As with Array, remove () leaves a hole and size () counts
+ * the values, and the begin/hasNext cursor only visits slots that hold a value.
+ *
+ * Direct memory is returned when the segments are garbage collected; clear () drops them.
+ */
+public class OffHeapArray
+{
+	static final int SEGMENT_SHIFT = 20;
+	static final int SEGMENT_SLOTS = 1 << SEGMENT_SHIFT;
+	private static final int SEGMENT_MASK = SEGMENT_SLOTS - 1;
+	private static final int BITS_OFFSET = SEGMENT_SLOTS * 8;			// byte offset of the bitmap in a segment
+	private static final int SEGMENT_BYTES = BITS_OFFSET + SEGMENT_SLOTS / 8;
+
+	private ByteBuffer[] segments = new ByteBuffer[1];
+	private long size;
+
+	public OffHeapArray ()
+	{
+	}
+
+	/**
+	 * public long getLong (long index)
+	 *
+	 * @param long index
+	 * @return long value, 0 if there is none.
+	 */
+	public long getLong (long index)
+	{
+		ByteBuffer segment = segment (index);
+		return (segment == null) ? 0 : segment.getLong(((int) index & SEGMENT_MASK) << 3);
+	}
+
+	/**
+	 * public double getDouble (long index)
+	 *
+	 * @param long index
+	 * @return double value, 0 if there is none.
+	 */
+	public double getDouble (long index)
+	{
+		ByteBuffer segment = segment (index);
+		return (segment == null) ? 0 : segment.getDouble(((int) index & SEGMENT_MASK) << 3);
+	}
+
+	/**
+	 * public boolean contains (long index) - 'true' if slot 'index' holds a value.
+	 *
+	 * @param long index
+	 * @return boolean
+	 */
+	public boolean contains (long index)
+	{
+		ByteBuffer segment = segment (index);
+		if (segment == null)
+		{
+			return false;
+		}
+		int slot = (int) index & SEGMENT_MASK;
+		return (segment.getLong(BITS_OFFSET + ((slot >>> 6) << 3)) & (1L << slot)) != 0;
+	}
+
+	/**
+	 * public void setLong (long index, long value) - expanding set, allocates the segment of 'index'
+	 * 		if it does not exist yet.
+	 *
+	 * @param long index
+	 * @param long value
+	 */
+	public void setLong (long index, long value)
+	{
+		ByteBuffer segment = occupy (index);
+		segment.putLong(((int) index & SEGMENT_MASK) << 3, value);
+	}
+
+	/**
+	 * public void setDouble (long index, double value) - see setLong ().
+	 *
+	 * @param long index
+	 * @param double value
+	 */
+	public void setDouble (long index, double value)
+	{
+		ByteBuffer segment = occupy (index);
+		segment.putDouble(((int) index & SEGMENT_MASK) << 3, value);
+	}
+
+	/**
+	 * public void remove (long index) - empties slot 'index'. Nothing happens if it is empty already.
+	 *
+	 * @param long index
+	 */
+	public void remove (long index)
+	{
+		ByteBuffer segment = segment (index);
+		if (segment == null)
+		{
+			return;
+		}
+		int slot = (int) index & SEGMENT_MASK;
+		int word_offset = BITS_OFFSET + ((slot >>> 6) << 3);
+		long word = segment.getLong(word_offset);
+		long mask = 1L << slot;
+		if ((word & mask) != 0)
+		{
+			segment.putLong(word_offset, word & ~mask);
+			segment.putLong(slot << 3, 0);
+			size--;
+		}
+	}
+
+	/**
+	 * public long nextSetIndex (long from) - first index at or after 'from' that holds a value.
+	 *
+	 * @param long from
+	 * @return long index, or -1 if there is none.
+	 */
+	public long nextSetIndex (long from)
+	{
+		if (from < 0) from = 0;
+		int s = (int) (from >>> SEGMENT_SHIFT);
+		int slot = (int) from & SEGMENT_MASK;
+		for (; s < segments.length; s++, slot = 0)
+		{
+			ByteBuffer segment = segments[s];
+			if (segment == null)
+			{
+				continue;
+			}
+			int w = slot >>> 6;
+			long word = segment.getLong(BITS_OFFSET + (w << 3)) & (-1L << slot);
+			while (true)
+			{
+				if (word != 0)
+				{
+					return ((long) s << SEGMENT_SHIFT) + (w << 6) + Long.numberOfTrailingZeros(word);
+				}
+				if (++w == SEGMENT_SLOTS / 64)
+				{
+					break;
+				}
+				word = segment.getLong(BITS_OFFSET + (w << 3));
+			}
+		}
+		return -1;
+	}
+
+	////////////////////////////////////////////////
+	//
+	//	Iterator-less iterations
+	//
+	private long pointer = -1;
+	public void begin ()
+	{
+		pointer = nextSetIndex (0);
+	}
+	public boolean hasNext ()
+	{
+		return pointer >= 0;
+	}
+	/**
+	 * public long nextIndex () - index of the next slot that holds a value; read it with getLong ()
+	 * 		or getDouble ().
+	 *
+	 * @return long index
+	 */
+	public long nextIndex ()
+	{
+		long index = pointer;
+		pointer = nextSetIndex (index + 1);
+		return index;
+	}
+	public long nextLong ()
+	{
+		return getLong (nextIndex ());
+	}
+	public double nextDouble ()
+	{
+		return getDouble (nextIndex ());
+	}
+
+	/**
+	 * public long length () - number of slots the segment table covers, NOT the number of values.
+	 *
+	 * @return long
+	 */
+	public long length ()
+	{
+		return (long) segments.length << SEGMENT_SHIFT;
+	}
+
+	/**
+	 * public long size () - number of values in the array.
+	 *
+	 * @return long
+	 */
+	public long size ()
+	{
+		return size;
+	}
+
+	/**
+	 * public long allocatedBytes () - direct memory held by the allocated segments.
+	 *
+	 * @return long
+	 */
+	public long allocatedBytes ()
+	{
+		long bytes = 0;
+		for (ByteBuffer segment : segments)
+		{
+			if (segment != null) bytes += SEGMENT_BYTES;
+		}
+		return bytes;
+	}
+
+	/**
+	 * public void clear () - drops every segment, their memory is freed once they are collected.
+	 */
+	public void clear ()
+	{
+		Arrays.fill(segments, null);
+		size = 0;
+	}
+
+	private ByteBuffer segment (long index)
+	{
+		long s = index >>> SEGMENT_SHIFT;
+		return (s < segments.length) ? segments[(int) s] : null;
+	}
+
+	/**
+	 * private ByteBuffer occupy (long index) - segment of 'index', allocated if needed, with the slot
+	 * 		marked as holding a value.
+	 */
+	private ByteBuffer occupy (long index)
+	{
+		if (index < 0)
+		{
+			throw new IndexOutOfBoundsException ("index " + index);
+		}
+		long s = index >>> SEGMENT_SHIFT;
+		if (s >= segments.length)
+		{
+			segments = Arrays.copyOf(segments, (int) Math.max (s + 1, segments.length + (segments.length >> 1)));
+		}
+		ByteBuffer segment = segments[(int) s];
+		if (segment == null)
+		{
+			segment = ByteBuffer.allocateDirect(SEGMENT_BYTES).order(ByteOrder.nativeOrder());
+			segments[(int) s] = segment;
+		}
+		int slot = (int) index & SEGMENT_MASK;
+		int word_offset = BITS_OFFSET + ((slot >>> 6) << 3);
+		long word = segment.getLong(word_offset);
+		long mask = 1L << slot;
+		if ((word & mask) == 0)
+		{
+			segment.putLong(word_offset, word | mask);
+			size++;
+		}
+		return segment;
+	}
+}
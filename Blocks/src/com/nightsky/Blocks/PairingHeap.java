@@ -0,0 +1,296 @@
+package com.nightsky.Blocks;
+
+import java.util.Comparator;
+
+/**
+ * PairingHeap<E> - min heap (by 'comparator') made of one heap-ordered tree of PairingHeapNodes.
+ *
+ * 		insert, meld, decrease	O(1), the node is linked with the root
+ * 		remove					O(log n) amortized, the children of the root are linked in pairs
+ * 								left to right, then folded into one tree right to left (two-pass)
+ *
+ * Compared to FibonacciHeap there is no rank table, no marks and no root list, and a node is four
+ * fields, which usually makes it faster in practice. Both passes of remove () are iterative, so a
+ * long list of children (e.g. after many inserts) does not use the call stack.
+ */
+public class PairingHeap<E> implements PriorityHeap<E>
+{
+	private final Comparator<? super E> comparator;
+
+	private PairingHeapNode<E> root;
+	private int num_nodes;
+
+	/**
+	 * public PairingHeap () - values must implement Comparable.
+	 */
+	public PairingHeap ()
+	{
+		this (NaturalOrder.<E>get());
+	}
+
+	/**
+	 * public PairingHeap (Comparator<? super E> comparator)
+	 *
+	 * @param Comparator<? super E> comparator - the smallest value is at the top
+	 */
+	public PairingHeap (Comparator<? super E> comparator)
+	{
+		this.comparator = comparator;
+	}
+
+	public Comparator<? super E> getComparator ()
+	{
+		return comparator;
+	}
+
+	/**
+	 * public PairingHeapNode<E> insert (E value)
+	 *
+	 * @param E value
+	 * @return PairingHeapNode<E> node that was inserted.
+	 */
+	@Override
+	public PairingHeapNode<E> insert (E value)
+	{
+		PairingHeapNode<E> n = new PairingHeapNode<E> (value);
+		insert (n);
+		return n;
+	}
+
+	/**
+	 * public void insert (PairingHeapNode<E> n) - inserts a node which is not in any heap, e.g. one
+	 * 		that was removed before.
+	 *
+	 * @param PairingHeapNode<E> n
+	 */
+	public void insert (PairingHeapNode<E> n)
+	{
+		root = link (root, n);
+		num_nodes++;
+	}
+
+	/**
+	 * public PairingHeapNode<E> getTop ()
+	 *
+	 * @return PairingHeapNode<E> at the top of the heap, or null.
+	 */
+	@Override
+	public PairingHeapNode<E> getTop ()
+	{
+		return root;
+	}
+
+	/**
+	 * public PairingHeapNode<E> remove () - removes and returns the top of the heap.
+	 *
+	 * @return PairingHeapNode<E> top, or null if the heap is empty.
+	 */
+	@Override
+	public PairingHeapNode<E> remove ()
+	{
+		PairingHeapNode<E> top = root;
+		if (top == null)
+		{
+			return null;
+		}
+		root = mergePairs (top.child);
+		top.child = null;
+		num_nodes--;
+		return top;
+	}
+
+	/**
+	 * public void meld (PairingHeap<E> other) - O(1). Moves every node of 'other' into this heap and
+	 * 		leaves 'other' empty. Both heaps must order their values the same way.
+	 *
+	 * @param PairingHeap<E> other
+	 */
+	public void meld (PairingHeap<E> other)
+	{
+		if (other == this || other.root == null)
+		{
+			return;
+		}
+		root = link (root, other.root);
+		num_nodes += other.num_nodes;
+		other.root = null;
+		other.num_nodes = 0;
+	}
+
+	@Override
+	public void changeValue (HeapHandle<E> handle, E newValue)
+	{
+		changeValue ((PairingHeapNode<E>) handle, newValue);
+	}
+
+	/**
+	 * public void changeValue (PairingHeapNode<E> n, E newValue) - a value that moves towards the top
+	 * 		only cuts the subtree of 'n' and links it with the root. A value that moves away from the
+	 * 		top also pairs up the children of 'n' and links them with the root, then 'n' on its own.
+	 *
+	 * @param PairingHeapNode<E> n - node which is in this heap
+	 * @param E newValue
+	 */
+	public void changeValue (PairingHeapNode<E> n, E newValue)
+	{
+		int c = comparator.compare(newValue, n.value);
+		n.value = newValue;
+		if (c < 0)
+		{
+			nodeValueDecreased (n);
+		}
+		else if (c > 0)
+		{
+			PairingHeapNode<E> children = mergePairs (n.child);
+			n.child = null;
+			if (n == root)
+			{
+				root = children;
+			}
+			else
+			{
+				unlink (n);
+				root = link (root, children);
+			}
+			root = link (root, n);
+		}
+	}
+
+	@Override
+	public void nodeValueDecreased (HeapHandle<E> handle)
+	{
+		nodeValueDecreased ((PairingHeapNode<E>) handle);
+	}
+
+	/**
+	 * public void nodeValueDecreased (PairingHeapNode<E> n) - readjusts the heap for a node whose
+	 * 		value (or whatever the comparator looks at) moved towards the top.
+	 *
+	 * @param PairingHeapNode<E> n - node which is in this heap
+	 */
+	public void nodeValueDecreased (PairingHeapNode<E> n)
+	{
+		if (n == root)
+		{
+			return;
+		}
+		unlink (n);
+		root = link (root, n);
+	}
+
+	@Override
+	public PairingHeapNode<E> delete (HeapHandle<E> handle)
+	{
+		return delete ((PairingHeapNode<E>) handle);
+	}
+
+	/**
+	 * public PairingHeapNode<E> delete (PairingHeapNode<E> n) - removes 'n' wherever it is in the heap.
+	 *
+	 * @param PairingHeapNode<E> n - node which is in this heap
+	 * @return PairingHeapNode<E> n
+	 */
+	public PairingHeapNode<E> delete (PairingHeapNode<E> n)
+	{
+		if (n == root)
+		{
+			return remove ();
+		}
+		unlink (n);
+		root = link (root, mergePairs (n.child));
+		n.child = null;
+		num_nodes--;
+		return n;
+	}
+
+	@Override
+	public int size ()
+	{
+		return num_nodes;
+	}
+
+	/**
+	 * private PairingHeapNode<E> link (PairingHeapNode<E> a, PairingHeapNode<E> b) - links two trees
+	 * 		(either may be null), the one with the larger root becomes the first child of the other.
+	 * 		Both must be roots, i.e. have no 'previous' or 'sibling'. Ties keep 'a' on top.
+	 */
+	private PairingHeapNode<E> link (PairingHeapNode<E> a, PairingHeapNode<E> b)
+	{
+		if (a == null) return b;
+		if (b == null) return a;
+		if (comparator.compare(b.value, a.value) < 0)
+		{
+			PairingHeapNode<E> t = a;
+			a = b;
+			b = t;
+		}
+		b.sibling = a.child;
+		if (a.child != null) a.child.previous = b;
+		b.previous = a;
+		a.child = b;
+		return a;
+	}
+
+	/**
+	 * private void unlink (PairingHeapNode<E> n) - takes the subtree of 'n' out of its parent's list
+	 * 		of children. 'n' must not be the root.
+	 */
+	private void unlink (PairingHeapNode<E> n)
+	{
+		if (n.previous.child == n)
+		{
+			n.previous.child = n.sibling;
+		}
+		else
+		{
+			n.previous.sibling = n.sibling;
+		}
+		if (n.sibling != null) n.sibling.previous = n.previous;
+		n.previous = null;
+		n.sibling = null;
+	}
+
+	/**
+	 * private PairingHeapNode<E> mergePairs (PairingHeapNode<E> first) - two-pass pairing of a list of
+	 * 		siblings into one tree. The first pass links the siblings in pairs and stacks the results
+	 * 		through 'sibling', so the second pass can fold them right to left.
+	 */
+	private PairingHeapNode<E> mergePairs (PairingHeapNode<E> first)
+	{
+		if (first == null)
+		{
+			return null;
+		}
+
+		PairingHeapNode<E> pairs = null;
+		PairingHeapNode<E> a = first;
+		while (a != null)
+		{
+			PairingHeapNode<E> b = a.sibling;
+			PairingHeapNode<E> next = (b == null) ? null : b.sibling;
+			a.previous = null;
+			a.sibling = null;
+			if (b != null)
+			{
+				b.previous = null;
+				b.sibling = null;
+				a = link (a, b);
+			}
+			a.sibling = pairs;
+			pairs = a;
+			a = next;
+		}
+
+		PairingHeapNode<E> tree = pairs;
+		pairs = pairs.sibling;
+		tree.sibling = null;
+		while (pairs != null)
+		{
+			PairingHeapNode<E> next = pairs.sibling;
+			pairs.sibling = null;
+			tree = link (pairs, tree);
+			pairs = next;
+		}
+		return tree;
+	}
+}
@@ -0,0 +1,31 @@
+package com.nightsky.Blocks;
+
+/**
+ * PairingHeapNode<E> - node of a PairingHeap. Children are a singly linked list hanging off 'child',
+ * chained through 'sibling'. 'previous' is the left sibling, or the parent for the first child, so a
+ * node can be unlinked without searching for it.
+ */
+public final class PairingHeapNode<E> implements HeapHandle<E>
+{
+	E value;
+
+	PairingHeapNode<E> child;
+	PairingHeapNode<E> sibling;
+	PairingHeapNode<E> previous;
+
+	/**
+	 * public PairingHeapNode (E value)
+	 *
+	 * @param E value
+	 */
+	public PairingHeapNode (E value)
+	{
+		this.value = value;
+	}
+
+	@Override
+	public E getValue ()
+	{
+		return value;
+	}
+}
@@ -0,0 +1,63 @@
+package com.nightsky.Blocks;
+
+/**
+ * PriorityHeap<E> - the operations shared by the heap engines (FibonacciHeap, PairingHeap, DaryHeap),
+ * so that callers can switch engines without being rewritten. Handles only work with the heap that
+ * created them.
+ */
+public interface PriorityHeap<E>
+{
+	/**
+	 * public HeapHandle<E> insert (E value)
+	 *
+	 * @param E value
+	 * @return HeapHandle<E> handle of the inserted value.
+	 */
+	public HeapHandle<E> insert (E value);
+
+	/**
+	 * public HeapHandle<E> getTop () - the handle at the top of the heap, or null if it is empty.
+	 *
+	 * @return HeapHandle<E>
+	 */
+	public HeapHandle<E> getTop ();
+
+	/**
+	 * public HeapHandle<E> remove () - removes and returns the top of the heap, or null if it is empty.
+	 *
+	 * @return HeapHandle<E>
+	 */
+	public HeapHandle<E> remove ();
+
+	/**
+	 * public void changeValue (HeapHandle<E> handle, E newValue) - replaces the value of 'handle' and
+	 * 		moves it up or down as needed.
+	 *
+	 * @param HeapHandle<E> handle
+	 * @param E newValue
+	 */
+	public void changeValue (HeapHandle<E> handle, E newValue);
+
+	/**
+	 * public void nodeValueDecreased (HeapHandle<E> handle) - readjusts the heap after whatever
+	 * 		'handle' is ordered by has changed so that it moved towards the top.
+	 *
+	 * @param HeapHandle<E> handle
+	 */
+	public void nodeValueDecreased (HeapHandle<E> handle);
+
+	/**
+	 * public HeapHandle<E> delete (HeapHandle<E> handle) - removes 'handle' wherever it is in the heap.
+	 *
+	 * @param HeapHandle<E> handle
+	 * @return HeapHandle<E> handle
+	 */
+	public HeapHandle<E> delete (HeapHandle<E> handle);
+
+	/**
+	 * public int size () - number of values in the heap.
+	 *
+	 * @return int
+	 */
+	public int size ();
+}
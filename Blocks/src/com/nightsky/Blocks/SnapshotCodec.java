@@ -0,0 +1,43 @@
+package com.nightsky.Blocks;
+
+import java.nio.ByteBuffer;
+
+/**
+ * SnapshotCodec<E> - converts values to and from bytes for SnapshotWriter and SnapshotReader. See
+ * SnapshotCodecs for the built-in codecs.
+ */
+public interface SnapshotCodec<E>
+{
+	/**
+	 * public int fixedSize () - number of bytes of every value, or -1 if it depends on the value. Values
+	 * 		of a variable size are stored with a length in front of them.
+	 *
+	 * @return int
+	 */
+	public int fixedSize ();
+
+	/**
+	 * public int size (E value) - number of bytes write () will put in the buffer for 'value'.
+	 *
+	 * @param E value - never null
+	 * @return int
+	 */
+	public int size (E value);
+
+	/**
+	 * public void write (ByteBuffer buffer, E value) - puts exactly size (value) bytes.
+	 *
+	 * @param ByteBuffer buffer - has at least size (value) bytes remaining
+	 * @param E value - never null
+	 */
+	public void write (ByteBuffer buffer, E value);
+
+	/**
+	 * public E read (ByteBuffer buffer, int size) - reads back a value written by write ().
+	 *
+	 * @param ByteBuffer buffer - positioned at the value
+	 * @param int size - number of bytes of the value
+	 * @return E
+	 */
+	public E read (ByteBuffer buffer, int size);
+}
@@ -0,0 +1,116 @@
+package com.nightsky.Blocks;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * SnapshotCodecs - SnapshotCodec for the common value types.
+ */
+public final class SnapshotCodecs
+{
+	private SnapshotCodecs ()
+	{
+	}
+
+	public static final SnapshotCodec<Integer> INTEGER = new SnapshotCodec<Integer> ()
+	{
+		@Override
+		public int fixedSize ()
+		{
+			return 4;
+		}
+		@Override
+		public int size (Integer value)
+		{
+			return 4;
+		}
+		@Override
+		public void write (ByteBuffer buffer, Integer value)
+		{
+			buffer.putInt(value);
+		}
+		@Override
+		public Integer read (ByteBuffer buffer, int size)
+		{
+			return buffer.getInt();
+		}
+	};
+
+	public static final SnapshotCodec<Long> LONG = new SnapshotCodec<Long> ()
+	{
+		@Override
+		public int fixedSize ()
+		{
+			return 8;
+		}
+		@Override
+		public int size (Long value)
+		{
+			return 8;
+		}
+		@Override
+		public void write (ByteBuffer buffer, Long value)
+		{
+			buffer.putLong(value);
+		}
+		@Override
+		public Long read (ByteBuffer buffer, int size)
+		{
+			return buffer.getLong();
+		}
+	};
+
+	public static final SnapshotCodec<Double> DOUBLE = new SnapshotCodec<Double> ()
+	{
+		@Override
+		public int fixedSize ()
+		{
+			return 8;
+		}
+		@Override
+		public int size (Double value)
+		{
+			return 8;
+		}
+		@Override
+		public void write (ByteBuffer buffer, Double value)
+		{
+			buffer.putDouble(value);
+		}
+		@Override
+		public Double read (ByteBuffer buffer, int size)
+		{
+			return buffer.getDouble();
+		}
+	};
+
+	/**
+	 * STRING - UTF-8 bytes. size () encodes the string, so write () encodes it a second time; values
+	 * are expected to be short.
+	 */
+	public static final SnapshotCodec<String> STRING = new SnapshotCodec<String> ()
+	{
+		@Override
+		public int fixedSize ()
+		{
+			return -1;
+		}
+		@Override
+		public int size (String value)
+		{
+			return value.getBytes(StandardCharsets.UTF_8).length;
+		}
+		@Override
+		public void write (ByteBuffer buffer, String value)
+		{
+			buffer.put(value.getBytes(StandardCharsets.UTF_8));
+		}
+		@Override
+		public String read (ByteBuffer buffer, int size)
+		{
+			byte[] bytes = new byte[size];
+			buffer.get(bytes);
+			return new String (bytes, StandardCharsets.UTF_8);
+		}
+	};
+}
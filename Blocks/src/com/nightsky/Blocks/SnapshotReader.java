@@ -0,0 +1,243 @@
+package com.nightsky.Blocks;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * SnapshotReader - reads back the sections of a file written by SnapshotWriter, in the order they were
+ * written. The file is memory-mapped, in windows of up to 256 MB, so reading is a walk over the
+ * mapping with no copy through a stream.
+ *
+ * A FibonacciHeap comes back with the same forest: the nodes are linked under their parents as they
+ * are read, with their marks, and the top is set directly. Nothing is inserted and nothing is
+ * compared, so restoring costs one pass over the file.
+ */
+public class SnapshotReader implements Closeable
+{
+	private static final long WINDOW = 1 << 28;
+
+	private final FileChannel channel;
+	private final long file_size;
+	private MappedByteBuffer window;
+	private long window_start;
+
+	/**
+	 * public SnapshotReader (Path file) - opens 'file' and checks its header.
+	 *
+	 * @param Path file
+	 * @throws IOException if the file is not a snapshot of a known version
+	 */
+	public SnapshotReader (Path file) throws IOException
+	{
+		channel = FileChannel.open(file, StandardOpenOption.READ);
+		try
+		{
+			file_size = channel.size();
+			map (0);
+			ensure (6);
+			if (window.getInt() != SnapshotWriter.MAGIC)
+			{
+				throw new IOException ("not a snapshot file: " + file);
+			}
+			short version = window.getShort();
+			if (version != SnapshotWriter.VERSION)
+			{
+				throw new IOException ("unsupported snapshot version " + version + ": " + file);
+			}
+		}
+		catch (IOException | RuntimeException e)
+		{
+			channel.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * public <E> Array<E> readArray (SnapshotCodec<? extends E> codec) - reads an Array section.
+	 *
+	 * @param SnapshotCodec<? extends E> codec
+	 * @return Array<E> with the values at their original indices.
+	 * @throws IOException
+	 */
+	public <E> Array<E> readArray (SnapshotCodec<? extends E> codec) throws IOException
+	{
+		section (SnapshotWriter.ARRAY);
+		ensure (8);
+		int length = window.getInt();
+		int size = window.getInt();
+		Array<E> array = new Array<E> (length);
+		for (int i = 0; i < size; i++)
+		{
+			ensure (4);
+			int index = window.getInt();
+			array.set(index, readValue (codec));
+		}
+		return array;
+	}
+
+	/**
+	 * public <N extends Node<E>, E> DoubleLinkedList<N> readList (N prototype, SnapshotCodec<? extends E> codec) -
+	 * 		reads a DoubleLinkedList section. The nodes are made with prototype.copy () and given the
+	 * 		values in order.
+	 *
+	 * @param N prototype - a node of the type to create
+	 * @param SnapshotCodec<? extends E> codec
+	 * @return DoubleLinkedList<N>
+	 * @throws IOException
+	 */
+	@SuppressWarnings("unchecked")
+	public <N extends Node<E>, E> DoubleLinkedList<N> readList (N prototype, SnapshotCodec<? extends E> codec) throws IOException
+	{
+		section (SnapshotWriter.LIST);
+		ensure (4);
+		int size = window.getInt();
+		DoubleLinkedList<N> list = new DoubleLinkedList<N> ();
+		for (int i = 0; i < size; i++)
+		{
+			ensure (1);
+			byte flags = window.get();
+			N n = (N) prototype.copy();
+			n.setValue(((flags & SnapshotWriter.NULL_VALUE) != 0) ? null : readValue (codec));
+			list.add(n);
+		}
+		return list;
+	}
+
+	/**
+	 * public <E> void readHeap (FibonacciHeap<E> heap, SnapshotCodec<? extends E> codec) - reads a
+	 * 		FibonacciHeap section into 'heap', which must be empty and order its values the same way as
+	 * 		the heap that was written.
+	 *
+	 * @param FibonacciHeap<E> heap
+	 * @param SnapshotCodec<? extends E> codec
+	 * @throws IOException
+	 */
+	@SuppressWarnings("unchecked")
+	public <E> void readHeap (FibonacciHeap<E> heap, SnapshotCodec<? extends E> codec) throws IOException
+	{
+		if (heap.size() != 0)
+		{
+			throw new IllegalStateException ("heap is not empty");
+		}
+		section (SnapshotWriter.HEAP);
+		ensure (8);
+		int num_nodes = window.getInt();
+		int top_position = window.getInt();
+
+		// parents[d] still needs children_left[d] children
+		@SuppressWarnings("unchecked")
+		HeapNode<E>[] parents = (HeapNode<E>[]) new HeapNode<?>[16];
+		int[] children_left = new int[16];
+		int depth = 0;
+		HeapNode<E> top = null;
+		for (int i = 0; i < num_nodes; i++)
+		{
+			ensure (5);
+			byte flags = window.get();
+			int degree = window.getInt();
+			HeapNode<E> n = new HeapNode<E> (((flags & SnapshotWriter.NULL_VALUE) != 0) ? null : (E) readValue (codec));
+			n.setMarked((flags & SnapshotWriter.MARKED) != 0);
+			if (i == top_position) top = n;
+
+			if (depth == 0)
+			{
+				heap.roots.add(n);
+			}
+			else
+			{
+				parents[depth - 1].addChild(n);
+				children_left[depth - 1]--;
+			}
+			if (degree > 0)
+			{
+				if (depth == parents.length)
+				{
+					parents = Arrays.copyOf(parents, depth * 2);
+					children_left = Arrays.copyOf(children_left, depth * 2);
+				}
+				parents[depth] = n;
+				children_left[depth] = degree;
+				depth++;
+			}
+			else
+			{
+				while (depth > 0 && children_left[depth - 1] == 0)
+				{
+					parents[--depth] = null;
+				}
+			}
+		}
+		if (depth != 0 || (num_nodes > 0 && (top == null || top.getParent() != null)))
+		{
+			throw new IOException ("corrupt heap section");
+		}
+		heap.restored(top, num_nodes);
+	}
+
+	/**
+	 * public boolean hasMoreSections () - 'true' if there is another section to read.
+	 *
+	 * @return boolean
+	 */
+	public boolean hasMoreSections ()
+	{
+		return window_start + window.position() < file_size;
+	}
+
+	@Override
+	public void close () throws IOException
+	{
+		channel.close();
+	}
+
+	private void section (byte kind) throws IOException
+	{
+		ensure (1);
+		byte found = window.get();
+		if (found != kind)
+		{
+			throw new IOException ("expected section " + kind + " but found " + found);
+		}
+	}
+
+	private <E> E readValue (SnapshotCodec<E> codec) throws IOException
+	{
+		int size = codec.fixedSize();
+		if (size < 0)
+		{
+			ensure (4);
+			size = window.getInt();
+		}
+		ensure (size);
+		return codec.read(window, size);
+	}
+
+	/**
+	 * private void ensure (int bytes) - makes sure the next 'bytes' are in the mapped window, moving
+	 * 		the window forward if they are not.
+	 */
+	private void ensure (int bytes) throws IOException
+	{
+		if (window.remaining() >= bytes)
+		{
+			return;
+		}
+		map (window_start + window.position());
+		if (window.remaining() < bytes)
+		{
+			throw new EOFException ("snapshot ends in the middle of a section");
+		}
+	}
+
+	private void map (long position) throws IOException
+	{
+		window_start = position;
+		window = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min (WINDOW, file_size - position));
+	}
+}
@@ -0,0 +1,218 @@
+package com.nightsky.Blocks;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Consumer;
+
+/**
+ * SnapshotWriter - writes Array, DoubleLinkedList and FibonacciHeap contents to a file, to be read back
+ * with SnapshotReader. A file holds any number of sections, read back in the order they were written.
+ *
+ * 		file			MAGIC (int), VERSION (short), sections...
+ * 		Array			ARRAY (byte), length (int), size (int), size * [index (int), value]
+ * 		DoubleLinkedList	LIST (byte), size (int), size * [flags (byte), value], from the head
+ * 		FibonacciHeap	HEAP (byte), num_nodes (int), top (int), num_nodes * [flags (byte), degree (int), value]
+ *
+ * Heap nodes are stored in preorder (a root, its subtrees, the next root), which together with the
+ * degrees gives the shape of the forest; 'top' is the preorder position of the top. Node flags hold
+ * the mark of a heap node and whether the value is null. A value is written by its SnapshotCodec,
+ * with an int length in front if the codec has no fixed size. Numbers are big-endian.
+ *
+ * The writer buffers in memory; close () writes what is left, but does not force it to the device.
+ */
+public class SnapshotWriter implements Closeable
+{
+	static final int MAGIC = 0x424C4B53;		// "BLKS"
+	static final short VERSION = 1;
+
+	static final byte ARRAY = 1;
+	static final byte LIST = 2;
+	static final byte HEAP = 3;
+
+	static final byte MARKED = 1;
+	static final byte NULL_VALUE = 2;
+
+	private final FileChannel channel;
+	private ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 16);
+
+	private IOException failure;				// first exception thrown inside a forEach () callback
+
+	/**
+	 * public SnapshotWriter (Path file) - creates 'file', or replaces its contents.
+	 *
+	 * @param Path file
+	 * @throws IOException
+	 */
+	public SnapshotWriter (Path file) throws IOException
+	{
+		channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+		buffer.putInt(MAGIC);
+		buffer.putShort(VERSION);
+	}
+
+	/**
+	 * public <E> void writeArray (Array<E> array, SnapshotCodec<? super E> codec) - writes the values of
+	 * 		'array' with their indices, so the holes come back as they were.
+	 *
+	 * @param Array<E> array
+	 * @param SnapshotCodec<? super E> codec
+	 * @throws IOException
+	 */
+	public <E> void writeArray (Array<E> array, SnapshotCodec<? super E> codec) throws IOException
+	{
+		ensure (9);
+		buffer.put(ARRAY);
+		buffer.putInt(array.length());
+		buffer.putInt(array.size());
+		for (int i = array.nextSetIndex(0); i >= 0; i = array.nextSetIndex(i + 1))
+		{
+			ensure (4);
+			buffer.putInt(i);
+			writeValue (array.get(i), codec);
+		}
+	}
+
+	/**
+	 * public <E> void writeList (DoubleLinkedList<? extends Node<E>> list, SnapshotCodec<? super E> codec) -
+	 * 		writes the values of 'list' from the head to the tail.
+	 *
+	 * @param DoubleLinkedList<? extends Node<E>> list
+	 * @param SnapshotCodec<? super E> codec
+	 * @throws IOException
+	 */
+	public <E> void writeList (DoubleLinkedList<? extends Node<E>> list, SnapshotCodec<? super E> codec) throws IOException
+	{
+		ensure (5);
+		buffer.put(LIST);
+		buffer.putInt(list.size());
+		Node<E> n = list.getPointer();
+		for (int i = list.size(); i > 0; i--)
+		{
+			ensure (1);
+			buffer.put((n.getValue() == null) ? NULL_VALUE : 0);
+			if (n.getValue() != null) writeValue (n.getValue(), codec);
+			n = n.getNext();
+		}
+	}
+
+	/**
+	 * public <E> void writeHeap (FibonacciHeap<E> heap, SnapshotCodec<? super E> codec) - writes every
+	 * 		tree of 'heap' with its marks and degrees, as well as which root is the top.
+	 *
+	 * @param FibonacciHeap<E> heap
+	 * @param SnapshotCodec<? super E> codec
+	 * @throws IOException
+	 */
+	public <E> void writeHeap (FibonacciHeap<E> heap, final SnapshotCodec<? super E> codec) throws IOException
+	{
+		// Find the preorder position of the top first, it goes in front of the nodes
+		final HeapNode<E> top = heap.getTop();
+		final int[] position = {0, -1};
+		heap.forEachNode(new Consumer<HeapNode<E>> ()
+		{
+			@Override
+			public void accept (HeapNode<E> n)
+			{
+				if (n == top) position[1] = position[0];
+				position[0]++;
+			}
+		});
+
+		ensure (9);
+		buffer.put(HEAP);
+		buffer.putInt(heap.size());
+		buffer.putInt(position[1]);
+		heap.forEachNode(new Consumer<HeapNode<E>> ()
+		{
+			@Override
+			public void accept (HeapNode<E> n)
+			{
+				if (failure != null) return;
+				try
+				{
+					E value = n.getValue();
+					ensure (5);
+					buffer.put((byte) ((n.isMarked() ? MARKED : 0) | (value == null ? NULL_VALUE : 0)));
+					buffer.putInt(n.getDegree());
+					if (value != null) writeValue (value, codec);
+				}
+				catch (IOException e)
+				{
+					failure = e;
+				}
+			}
+		});
+		if (failure != null)
+		{
+			IOException e = failure;
+			failure = null;
+			throw e;
+		}
+	}
+
+	/**
+	 * public void close () - writes the buffered bytes and closes the file.
+	 *
+	 * @throws IOException
+	 */
+	@Override
+	public void close () throws IOException
+	{
+		try
+		{
+			flush ();
+		}
+		finally
+		{
+			channel.close();
+		}
+	}
+
+	private <E> void writeValue (E value, SnapshotCodec<? super E> codec) throws IOException
+	{
+		int fixed = codec.fixedSize();
+		if (fixed >= 0)
+		{
+			ensure (fixed);
+			codec.write(buffer, value);
+		}
+		else
+		{
+			int size = codec.size(value);
+			ensure (4 + size);
+			buffer.putInt(size);
+			codec.write(buffer, value);
+		}
+	}
+
+	/**
+	 * private void ensure (int bytes) - makes room for 'bytes' in the buffer, writing it out first
+	 * 		if needed, and growing it for values larger than the buffer.
+	 */
+	private void ensure (int bytes) throws IOException
+	{
+		if (buffer.remaining() >= bytes)
+		{
+			return;
+		}
+		flush ();
+		if (buffer.capacity() < bytes)
+		{
+			buffer = ByteBuffer.allocateDirect(bytes);
+		}
+	}
+
+	private void flush () throws IOException
+	{
+		buffer.flip();
+		while (buffer.hasRemaining())
+		{
+			channel.write(buffer);
+		}
+		buffer.clear();
+	}
+}
@@ -0,0 +1,120 @@
+package com.nightsky.Blocks;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Timeout - a task scheduled on a DeadlineScheduler. It is also the node that links the task into the
+ * list of its deadline bucket, so scheduling allocates nothing else per task and cancel () is an
+ * unlink.
+ */
+public final class Timeout implements Node<Runnable>
+{
+	static final int PENDING = 0;
+	static final int FIRED = 1;
+	static final int CANCELLED = 2;
+
+	private final DeadlineScheduler scheduler;
+	private Runnable task;
+
+	private Timeout previous;
+	private Timeout next;
+
+	DeadlineScheduler.Bucket bucket;	// bucket holding this timeout while it is PENDING
+	int state;							// guarded by the scheduler's lock
+
+	Timeout (DeadlineScheduler scheduler, Runnable task)
+	{
+		this.scheduler = scheduler;
+		this.task = task;
+	}
+
+	/**
+	 * public boolean cancel () - see DeadlineScheduler.cancel ().
+	 *
+	 * @return boolean - 'true' if the task will not run.
+	 */
+	public boolean cancel ()
+	{
+		return scheduler.cancel(this);
+	}
+
+	/**
+	 * public boolean reschedule (long delay, TimeUnit unit) - see DeadlineScheduler.reschedule ().
+	 *
+	 * @param long delay
+	 * @param TimeUnit unit
+	 * @return boolean - 'true' if the timeout was still pending.
+	 */
+	public boolean reschedule (long delay, TimeUnit unit)
+	{
+		return scheduler.reschedule(this, delay, unit);
+	}
+
+	public boolean isCancelled ()
+	{
+		return scheduler.stateOf(this) == CANCELLED;
+	}
+
+	/**
+	 * public boolean isFired () - 'true' once the task has been handed to the executor.
+	 *
+	 * @return boolean
+	 */
+	public boolean isFired ()
+	{
+		return scheduler.stateOf(this) == FIRED;
+	}
+
+	@Override
+	public Runnable getValue ()
+	{
+		return task;
+	}
+
+	@Override
+	public void setValue (Runnable task)
+	{
+		this.task = task;
+	}
+
+	@Override
+	public Timeout getNext ()
+	{
+		return next;
+	}
+
+	@Override
+	public void setNext (Node<Runnable> n)
+	{
+		next = (Timeout) n;
+	}
+
+	@Override
+	public Timeout getPrevious ()
+	{
+		return previous;
+	}
+
+	@Override
+	public void setPrevious (Node<Runnable> n)
+	{
+		previous = (Timeout) n;
+	}
+
+	@Override
+	public Node<Runnable> getParent ()
+	{
+		return null;
+	}
+
+	@Override
+	public void setParent (Node<Runnable> n)
+	{
+	}
+
+	@Override
+	public Timeout copy ()
+	{
+		return new Timeout (scheduler, task);
+	}
+}
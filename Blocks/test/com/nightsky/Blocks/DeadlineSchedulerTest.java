@@ -0,0 +1,205 @@
+package com.nightsky.Blocks;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+/**
+ * DeadlineSchedulerTest - timeouts with one rounded deadline share a bucket, cancel () and
+ * reschedule () keep the buckets and the heap in step, and moved timeouts fire at their new time.
+ * Delays and resolutions too large to add to the clock must not wrap around to a deadline that is
+ * already due.
+ */
+public class DeadlineSchedulerTest
+{
+	static final Runnable NOTHING = new Runnable ()
+	{
+		@Override
+		public void run ()
+		{
+		}
+	};
+
+	/**
+	 * Latch - a task that counts down 'fired' when it runs.
+	 */
+	static final class Latch implements Runnable
+	{
+		final CountDownLatch fired = new CountDownLatch (1);
+
+		@Override
+		public void run ()
+		{
+			fired.countDown();
+		}
+	}
+
+	@Test
+	public void sameDeadlineSharesBucket ()
+	{
+		// with a resolution of a day, every delay below a day rounds up to the same first tick
+		DeadlineScheduler scheduler = new DeadlineScheduler (Runnable::run, 1, TimeUnit.DAYS);
+		try
+		{
+			Timeout t1 = scheduler.schedule(NOTHING, 1, TimeUnit.HOURS);
+			Timeout t2 = scheduler.schedule(NOTHING, 2, TimeUnit.HOURS);
+			assertEquals(2, scheduler.pending());
+			assertEquals(1, scheduler.buckets());
+			Timeout t3 = scheduler.schedule(NOTHING, 70, TimeUnit.HOURS);		// third tick
+			assertEquals(2, scheduler.buckets());
+
+			// out of a shared bucket into an existing one, then out of its own bucket into one in use
+			assertTrue(t1.reschedule(60, TimeUnit.HOURS));
+			assertEquals(2, scheduler.buckets());
+			assertTrue(t2.reschedule(61, TimeUnit.HOURS));
+			assertEquals(1, scheduler.buckets());
+			assertEquals(3, scheduler.pending());
+
+			assertTrue(t1.cancel());
+			assertTrue(t2.cancel());
+			assertEquals(1, scheduler.buckets());
+			assertTrue(t3.cancel());
+			assertEquals(0, scheduler.buckets());
+			assertEquals(0, scheduler.pending());
+			assertTrue(t3.isCancelled());
+			assertTrue(t3.cancel());
+			assertFalse(t3.reschedule(1, TimeUnit.HOURS));
+		}
+		finally
+		{
+			scheduler.shutdown();
+		}
+	}
+
+	@Test
+	public void cancelDeletesEmptyBucket ()
+	{
+		DeadlineScheduler scheduler = new DeadlineScheduler (Runnable::run);
+		try
+		{
+			Timeout t1 = scheduler.schedule(NOTHING, 1, TimeUnit.HOURS);
+			Timeout t2 = scheduler.schedule(NOTHING, 2, TimeUnit.HOURS);
+			assertEquals(2, scheduler.buckets());
+			assertTrue(t1.cancel());
+			assertEquals(1, scheduler.buckets());
+			assertEquals(1, scheduler.pending());
+			assertFalse(t1.reschedule(1, TimeUnit.HOURS));
+			assertTrue(t2.cancel());
+			assertEquals(0, scheduler.buckets());
+			assertEquals(0, scheduler.pending());
+		}
+		finally
+		{
+			scheduler.shutdown();
+		}
+	}
+
+	@Test
+	public void rescheduleEarlierFiresAtNewTime () throws InterruptedException
+	{
+		DeadlineScheduler scheduler = new DeadlineScheduler (Runnable::run);
+		try
+		{
+			// 'moved' is alone in its bucket and goes to an unused deadline, so its bucket is moved up
+			// with decrease-key while the dispatcher waits for its old deadline
+			Timeout later = scheduler.schedule(NOTHING, 2, TimeUnit.HOURS);
+			Latch latch = new Latch ();
+			Timeout moved = scheduler.schedule(latch, 1, TimeUnit.HOURS);
+			Thread.sleep(50);
+			long start = System.nanoTime();
+			assertTrue(moved.reschedule(50, TimeUnit.MILLISECONDS));
+			assertEquals(2, scheduler.buckets());
+
+			assertTrue("moved timeout fired", latch.fired.await(10, TimeUnit.SECONDS));
+			assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(50));
+			assertTrue(moved.isFired());
+			assertFalse(moved.cancel());
+			assertFalse(later.isFired());
+			assertEquals(1, scheduler.pending());
+			assertEquals(1, scheduler.buckets());
+		}
+		finally
+		{
+			scheduler.shutdown();
+		}
+	}
+
+	@Test
+	public void rescheduleLaterDoesNotFireEarly () throws InterruptedException
+	{
+		DeadlineScheduler scheduler = new DeadlineScheduler (Runnable::run);
+		try
+		{
+			Latch latch = new Latch ();
+			Timeout moved = scheduler.schedule(latch, 20, TimeUnit.MILLISECONDS);
+			assertTrue(moved.reschedule(1, TimeUnit.HOURS));
+			assertEquals(1, scheduler.buckets());
+			assertFalse(latch.fired.await(100, TimeUnit.MILLISECONDS));
+			assertFalse(moved.isFired());
+
+			// the re-inserted bucket is still in the heap: moving it back makes it fire
+			assertTrue(moved.reschedule(10, TimeUnit.MILLISECONDS));
+			assertTrue("moved timeout fired", latch.fired.await(10, TimeUnit.SECONDS));
+			assertEquals(0, scheduler.pending());
+			assertEquals(0, scheduler.buckets());
+		}
+		finally
+		{
+			scheduler.shutdown();
+		}
+	}
+
+	@Test
+	public void hugeDelaysDoNotFire () throws InterruptedException
+	{
+		DeadlineScheduler scheduler = new DeadlineScheduler (Runnable::run);
+		try
+		{
+			Timeout nanos = scheduler.schedule(NOTHING, Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+			Timeout days = scheduler.schedule(NOTHING, Long.MAX_VALUE, TimeUnit.DAYS);
+			Timeout moved = scheduler.schedule(NOTHING, 1, TimeUnit.HOURS);
+			assertTrue(moved.reschedule(Long.MAX_VALUE, TimeUnit.MILLISECONDS));
+
+			// a short timeout scheduled after them still fires first
+			Latch latch = new Latch ();
+			scheduler.schedule(latch, 10, TimeUnit.MILLISECONDS);
+			assertTrue("10 ms timeout fired", latch.fired.await(10, TimeUnit.SECONDS));
+
+			assertFalse(nanos.isFired());
+			assertFalse(days.isFired());
+			assertFalse(moved.isFired());
+			assertEquals(3, scheduler.pending());
+			assertTrue(nanos.cancel());
+			assertTrue(days.cancel());
+			assertTrue(moved.cancel());
+			assertEquals(0, scheduler.buckets());
+		}
+		finally
+		{
+			scheduler.shutdown();
+		}
+	}
+
+	@Test
+	public void hugeResolutionDoesNotFire () throws InterruptedException
+	{
+		// every deadline rounds up to the first tick, Long.MAX_VALUE ns after the scheduler started
+		DeadlineScheduler scheduler = new DeadlineScheduler (Runnable::run, Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+		try
+		{
+			Timeout timeout = scheduler.schedule(NOTHING, 1, TimeUnit.MILLISECONDS);
+			Thread.sleep(50);
+			assertFalse(timeout.isFired());
+			assertTrue(timeout.cancel());
+		}
+		finally
+		{
+			scheduler.shutdown();
+		}
+	}
+}
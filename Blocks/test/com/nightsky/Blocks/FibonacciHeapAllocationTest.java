@@ -0,0 +1,70 @@
+package com.nightsky.Blocks;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.management.ManagementFactory;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * FibonacciHeapAllocationTest - once the heap has reached its size, remove () must not allocate:
+ * consolidation reuses the rank table of the heap and promotes children without an iterator. The
+ * bytes allocated by this thread are read from the ThreadMXBean before and after the removes.
+ *
+ * The counter is only as exact as the JVM makes it, and a JIT that has not compiled everything yet
+ * may still allocate now and then, so the bound is an average over many removes: well under the
+ * 16 bytes of the smallest object, which any allocation per remove () would exceed.
+ */
+public class FibonacciHeapAllocationTest
+{
+	static final int N = 1 << 16;
+	static final int WARMUP = 50;
+	static final double MAX_BYTES_PER_REMOVE = 1.0;
+
+	private static final com.sun.management.ThreadMXBean threads =
+			(com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+	@Test
+	public void removeDoesNotAllocate ()
+	{
+		Integer[] values = new Integer[N];
+		Random random = new Random(3);
+		for (int i = 0; i < N; i++)
+		{
+			values[i] = random.nextInt();
+		}
+
+		// enough rounds for the JIT to compile remove (), and for the rank table to reach its size
+		MinFibonacciHeap<Integer> heap = new MinFibonacciHeap<Integer> ();
+		for (int round = 0; round < WARMUP; round++)
+		{
+			for (int i = 0; i < N; i++) heap.insert(values[i]);
+			while (heap.size() > 0) heap.remove();
+		}
+		for (int i = 0; i < N; i++) heap.insert(values[i]);
+
+		long thread_id = Thread.currentThread().getId();
+		long overhead = allocatedBetweenReads (thread_id);
+		long before = threads.getThreadAllocatedBytes(thread_id);
+		for (int i = 0; i < N / 2; i++) heap.remove();
+		long after = threads.getThreadAllocatedBytes(thread_id);
+
+		long allocated = Math.max (after - before - overhead, 0);
+		assertTrue(allocated + " bytes allocated by " + (N / 2) + " removes",
+				allocated <= MAX_BYTES_PER_REMOVE * (N / 2));
+		assertEquals(N - N / 2, heap.size());
+	}
+
+	/**
+	 * private static long allocatedBetweenReads (long thread_id) - what reading the counter allocates
+	 * 		itself, if anything.
+	 */
+	private static long allocatedBetweenReads (long thread_id)
+	{
+		long before = threads.getThreadAllocatedBytes(thread_id);
+		long after = threads.getThreadAllocatedBytes(thread_id);
+		return after - before;
+	}
+}
@@ -0,0 +1,172 @@
+package com.nightsky.Blocks;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import org.junit.Test;
+
+/**
+ * IndexedFibonacciHeapTest - random upserts (up and down), removes by id and removeTop ()s checked
+ * against a Model after every step. That covers the backward-shift deletion of the id table, its
+ * growth, and the lazy increaseKey () and delete () of the CompactFibonacciHeap underneath. Part of
+ * the ids share one home slot at every table size up to 4096, so their probe runs are long and are
+ * shifted back by every remove.
+ */
+public class IndexedFibonacciHeapTest
+{
+	static final int STEPS = 200000;
+	static final int GROWTH_STEPS = 60000;		// mostly upserts first, then mostly removes
+
+	@Test
+	public void matchesModel ()
+	{
+		Random random = new Random(24);
+		long[] ids = ids (random);
+		IndexedFibonacciHeap heap = new IndexedFibonacciHeap ();
+		Model model = new Model ();
+
+		for (int step = 0; step < STEPS; step++)
+		{
+			long id = ids[random.nextInt(ids.length)];
+			int op = random.nextInt(100);
+			int upserts = (step < GROWTH_STEPS) ? 70 : 40;
+			if (op < upserts)
+			{
+				// few distinct priorities, so that ties and no-change upserts happen
+				double priority = random.nextInt(1000);
+				assertEquals(!model.containsKey(id), heap.upsert(id, priority));
+				model.put(id, priority);
+			}
+			else if (op < upserts + (100 - upserts) / 2)
+			{
+				assertEquals(model.remove(id) != null, heap.remove(id));
+			}
+			else if (!model.isEmpty())
+			{
+				double top = heap.topPriority();
+				assertEquals(model.min(), top, 0);
+				long removed = heap.removeTop();
+				assertEquals(Double.valueOf(top), model.remove(removed));
+			}
+			check (heap, model, ids[random.nextInt(ids.length)]);
+			check (heap, model, id);
+		}
+
+		// everything left comes out in order
+		double last = Double.NEGATIVE_INFINITY;
+		while (!heap.isEmpty())
+		{
+			double top = heap.topPriority();
+			assertTrue(top >= last);
+			assertEquals(Double.valueOf(top), model.remove(heap.removeTop()));
+			last = top;
+		}
+		assertTrue(model.isEmpty());
+
+		// and the emptied storage is used again
+		heap.upsert(ids[0], 5);
+		heap.upsert(ids[1], 3);
+		heap.upsert(ids[0], 1);
+		assertEquals(ids[0], heap.topId());
+		heap.clear();
+		assertEquals(0, heap.size());
+		assertFalse(heap.contains(ids[0]));
+	}
+
+	private static void check (IndexedFibonacciHeap heap, Model model, long id)
+	{
+		assertEquals(model.size(), heap.size());
+		Double priority = model.get(id);
+		assertEquals(priority != null, heap.contains(id));
+		assertEquals((priority != null) ? priority : Double.NaN, heap.priorityOf(id), 0);
+		if (!model.isEmpty())
+		{
+			assertEquals(model.get(heap.topId()), heap.topPriority(), 0);
+			assertEquals(model.min(), heap.topPriority(), 0);
+		}
+	}
+
+	/**
+	 * Model - the expected queue: the priority of every queued id, and how many ids have each priority.
+	 */
+	static final class Model
+	{
+		final Map<Long, Double> priorities = new HashMap<Long, Double> ();
+		final TreeMap<Double, Integer> counts = new TreeMap<Double, Integer> ();
+
+		boolean containsKey (long id)
+		{
+			return priorities.containsKey(id);
+		}
+
+		Double get (long id)
+		{
+			return priorities.get(id);
+		}
+
+		void put (long id, double priority)
+		{
+			remove (id);
+			priorities.put(id, priority);
+			Integer count = counts.get(priority);
+			counts.put(priority, (count == null) ? 1 : count + 1);
+		}
+
+		Double remove (long id)
+		{
+			Double priority = priorities.remove(id);
+			if (priority != null)
+			{
+				int count = counts.get(priority);
+				if (count == 1) counts.remove(priority);
+				else counts.put(priority, count - 1);
+			}
+			return priority;
+		}
+
+		double min ()
+		{
+			return counts.firstKey();
+		}
+
+		int size ()
+		{
+			return priorities.size();
+		}
+
+		boolean isEmpty ()
+		{
+			return priorities.isEmpty();
+		}
+	}
+
+	/**
+	 * private static long[] ids (Random random) - 64 ids with the same hash in the top 12 bits, as
+	 * 		IndexedFibonacciHeap.hash () computes it, 3000 random ones and the extremes.
+	 */
+	private static long[] ids (Random random)
+	{
+		long[] ids = new long[64 + 3000 + 3];
+		int n = 0;
+		long home = (random.nextLong() * 0x9E3779B97F4A7C15L) >>> 52;
+		while (n < 64)
+		{
+			long id = random.nextLong();
+			if (((id * 0x9E3779B97F4A7C15L) >>> 52) == home) ids[n++] = id;
+		}
+		while (n < 64 + 3000)
+		{
+			ids[n++] = random.nextLong();
+		}
+		ids[n++] = 0;
+		ids[n++] = Long.MIN_VALUE;
+		ids[n++] = Long.MAX_VALUE;
+		return ids;
+	}
+}
@@ -0,0 +1,87 @@
+package com.nightsky.Blocks;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * MappedArrayTest - values set in a MappedArray are there when the file is opened again, and a file
+ * that is not a MappedArray is left as it was.
+ */
+public class MappedArrayTest
+{
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder ();
+
+	@Test
+	public void reopenRoundTrip () throws IOException
+	{
+		Path file = folder.getRoot().toPath().resolve("array.mapped");
+		int[] indices = {0, 5, 1000, (1 << 20) + 3};		// the last one is in the second segment
+
+		MappedArray<Integer> array = new MappedArray<Integer> (file, SnapshotCodecs.INTEGER);
+		for (int index : indices)
+		{
+			array.set(index, -index);
+		}
+		array.set(7, 7);
+		array.remove(7);
+		array.set(5, 55);
+		array.close();
+
+		array = new MappedArray<Integer> (file, SnapshotCodecs.INTEGER);
+		try
+		{
+			assertEquals(indices.length, array.size());
+			assertEquals(Integer.valueOf(0), array.get(0));
+			assertEquals(Integer.valueOf(55), array.get(5));
+			assertEquals(Integer.valueOf(-1000), array.get(1000));
+			assertEquals(Integer.valueOf(-(1 << 20) - 3), array.get((1 << 20) + 3));
+			assertNull(array.get(7));
+			assertFalse(array.contains(7));
+			assertTrue(array.length() > (1 << 20) + 3);
+
+			List<Integer> values = new ArrayList<Integer> ();
+			for (array.begin(); array.hasNext(); )
+			{
+				values.add(array.next());
+			}
+			assertEquals(Arrays.asList(0, 55, -1000, -(1 << 20) - 3), values);
+		}
+		finally
+		{
+			array.close();
+		}
+	}
+
+	@Test
+	public void shortFileIsLeftAlone () throws IOException
+	{
+		Path file = folder.newFile("notes.txt").toPath();
+		byte[] contents = "not a mapped array\n".getBytes("UTF-8");
+		Files.write(file, contents);
+		try
+		{
+			new MappedArray<Integer> (file, SnapshotCodecs.INTEGER).close();
+			fail("opened a " + contents.length + " byte text file");
+		}
+		catch (IOException e)
+		{
+		}
+		assertArrayEquals(contents, Files.readAllBytes(file));
+	}
+}
@@ -0,0 +1,117 @@
+package com.nightsky.Blocks;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Consumer;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * SnapshotReaderTest - a FibonacciHeap read back by SnapshotReader has the forest that was written:
+ * the same trees, degrees, marks and top, and it keeps working as a heap afterwards.
+ */
+public class SnapshotReaderTest
+{
+	static final int N = 5000;
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder ();
+
+	@Test
+	public void heapRoundTrip () throws IOException
+	{
+		// Removes consolidate the roots into trees, decreases cut nodes and mark their parents
+		MinFibonacciHeap<Integer> heap = new MinFibonacciHeap<Integer> ();
+		List<HeapNode<Integer>> nodes = new ArrayList<HeapNode<Integer>> ();
+		Random random = new Random(19);
+		for (int i = 0; i < N; i++)
+		{
+			nodes.add(heap.insert(random.nextInt(1 << 20)));
+		}
+		for (int i = 0; i < N / 10; i++)
+		{
+			nodes.remove(heap.remove());
+		}
+		for (int i = 0; i < N / 10; i++)
+		{
+			HeapNode<Integer> n = nodes.get(random.nextInt(nodes.size()));
+			heap.changeValue(n, n.getValue() - random.nextInt(1 << 20));
+		}
+
+		Path file = folder.newFile("heap.snapshot").toPath();
+		SnapshotWriter writer = new SnapshotWriter (file);
+		writer.writeHeap(heap, SnapshotCodecs.INTEGER);
+		writer.close();
+
+		MinFibonacciHeap<Integer> restored = new MinFibonacciHeap<Integer> ();
+		SnapshotReader reader = new SnapshotReader (file);
+		reader.readHeap(restored, SnapshotCodecs.INTEGER);
+		assertFalse(reader.hasMoreSections());
+		reader.close();
+
+		String forest = forest (heap);
+		assertTrue("the heap has marked nodes", forest.contains("*"));
+		assertEquals(forest, forest (restored));
+		assertEquals(heap.size(), restored.size());
+		assertEquals(heap.getTop().getValue(), restored.getTop().getValue());
+
+		// the restored heap goes on removing in order, including through new inserts
+		for (int i = 0; i < 100; i++)
+		{
+			int v = random.nextInt(1 << 20);
+			heap.insert(v);
+			restored.insert(v);
+		}
+		while (heap.size() > 0)
+		{
+			assertEquals(heap.remove().getValue(), restored.remove().getValue());
+		}
+		assertEquals(0, restored.size());
+	}
+
+	@Test
+	public void shortFileIsRejected () throws IOException
+	{
+		Path file = folder.newFile("short.snapshot").toPath();
+		Files.write(file, new byte[] {1, 2, 3});
+		try
+		{
+			new SnapshotReader (file).close();
+			fail("read a 3 byte file");
+		}
+		catch (EOFException e)
+		{
+		}
+		Files.delete(file);
+	}
+
+	/**
+	 * private static String forest (FibonacciHeap<Integer> heap) - every node in preorder as
+	 * 		value/degree, with a '*' for a marked node.
+	 */
+	private static String forest (FibonacciHeap<Integer> heap)
+	{
+		final StringBuilder s = new StringBuilder ();
+		heap.forEachNode(new Consumer<HeapNode<Integer>> ()
+		{
+			@Override
+			public void accept (HeapNode<Integer> n)
+			{
+				s.append(n.getValue()).append('/').append(n.getDegree()).append(n.isMarked() ? "* " : " ");
+			}
+		});
+		return s.toString();
+	}
+}